@@ -10,8 +10,9 @@ import android.widget.Button;
 import com.quovantis.bluetoothlibs.DeviceItem;
 import com.quovantis.common.helpers.BaseRecyclerAdapter;
 import com.quovantis.common.event.EventManager;
-import com.quovantis.common.event.EventTypes;
+import com.quovantis.common.event.SubscriberConfig;
 import thermometer.quovantis.com.lib.helper.BluetoothDeviceItemManager;
+import thermometer.quovantis.com.lib.thermometer.ThermometerConstants.CHANNELS;
 import thermometer.quovantis.com.lib.thermometer.ThermometerManager;
 
 public class MainActivity extends Activity implements View.OnClickListener {
@@ -51,11 +52,11 @@ public class MainActivity extends Activity implements View.OnClickListener {
     private void init() {
         ThermometerManager.getInstance(this);
         mDeviceDiscoverListener = new DeviceDiscoverListener();
-        EventManager.getInstance().registerForEvent(EventTypes.EVENT_ACTION_DEVICE_STATE_CHANGED
-                , mDeviceDiscoverListener);
+        //weak subscription so listeners will not leak activity even if onDestroy is missed
+        SubscriberConfig config = new SubscriberConfig().setWeakReference(true);
+        EventManager.getInstance().registerForEvent(CHANNELS.DEVICE_STATE_CHANGED, mDeviceDiscoverListener, config);
         mDeviceSelectListener = new DeviceSelectListener();
-        EventManager.getInstance().registerForEvent(EventTypes.EVENT_ACTION_DEVICE_SELECTED
-                , mDeviceSelectListener);
+        EventManager.getInstance().registerForEvent(CHANNELS.DEVICE_SELECTED, mDeviceSelectListener, config);
     }
 
     @Override
@@ -67,10 +68,8 @@ public class MainActivity extends Activity implements View.OnClickListener {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        EventManager.getInstance().unregisterReceiver(EventTypes.EVENT_ACTION_DEVICE_STATE_CHANGED
-                , mDeviceDiscoverListener);
-        EventManager.getInstance().unregisterReceiver(EventTypes.EVENT_ACTION_DEVICE_SELECTED
-                , mDeviceSelectListener);
+        EventManager.getInstance().unregisterReceiver(CHANNELS.DEVICE_STATE_CHANGED, mDeviceDiscoverListener);
+        EventManager.getInstance().unregisterReceiver(CHANNELS.DEVICE_SELECTED, mDeviceSelectListener);
 
         ThermometerManager.getInstance(this).disconnectBT();
         ThermometerManager.getInstance(this).close();
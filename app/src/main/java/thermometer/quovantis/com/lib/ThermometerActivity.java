@@ -6,9 +6,10 @@ import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 import com.quovantis.common.event.EventManager;
-import com.quovantis.common.event.EventTypes;
+import com.quovantis.common.event.SubscriberConfig;
+import thermometer.quovantis.com.lib.thermometer.ThermometerConstants.CHANNELS;
 import thermometer.quovantis.com.lib.thermometer.ThermometerManager;
-import thermometer.quovantis.com.lib.thermometer.models.ThermometerReading;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReadingSnapshot;
 
 public class ThermometerActivity extends Activity implements View.OnClickListener {
     private TextView mTemperature;
@@ -31,15 +32,15 @@ public class ThermometerActivity extends Activity implements View.OnClickListene
         scanReading.setOnClickListener(this);
 
         mReadingsListener = new ThermometerReadingsListener();
-        EventManager.getInstance().registerForEvent(EventTypes.EVENT_ACTION_TEMPERATURE_READING_RECEIVED
-                , mReadingsListener);
+        //weak subscription so listener will not leak activity even if onDestroy is missed
+        EventManager.getInstance().registerForEvent(CHANNELS.TEMPERATURE_READING_RECEIVED, mReadingsListener
+                , new SubscriberConfig().setWeakReference(true));
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        EventManager.getInstance().unregisterReceiver(EventTypes.EVENT_ACTION_TEMPERATURE_READING_RECEIVED
-                , mReadingsListener);
+        EventManager.getInstance().unregisterReceiver(CHANNELS.TEMPERATURE_READING_RECEIVED, mReadingsListener);
     }
 
     @Override
@@ -47,12 +48,12 @@ public class ThermometerActivity extends Activity implements View.OnClickListene
         switch (v.getId()) {
             case R.id.btn_activity_thermometer_mode:
                 if (ThermometerManager.getInstance(this).changeMode()) {
-                    setData(ThermometerManager.getInstance(this).getThermometerReading());
+                    setData(ThermometerManager.getInstance(this).getThermometerReadingSnapshot());
                 }
                 break;
             case R.id.btn_activity_thermometer_unit:
                 if (ThermometerManager.getInstance(this).changeUnit()) {
-                    setData(ThermometerManager.getInstance(this).getThermometerReading());
+                    setData(ThermometerManager.getInstance(this).getThermometerReadingSnapshot());
                 }
                 break;
             case R.id.btn_activity_thermometer_reading:
@@ -61,14 +62,14 @@ public class ThermometerActivity extends Activity implements View.OnClickListene
         }
     }
 
-    private class ThermometerReadingsListener implements EventManager.EventReceivedListener<ThermometerReading> {
+    private class ThermometerReadingsListener implements EventManager.EventReceivedListener<ThermometerReadingSnapshot> {
         @Override
-        public void onEventReceived(ThermometerReading data) throws ClassCastException {
+        public void onEventReceived(ThermometerReadingSnapshot data) throws ClassCastException {
             setData(data);
         }
     }
 
-    private void setData(ThermometerReading data) {
+    private void setData(ThermometerReadingSnapshot data) {
         if (null == data) {
             return;
         }
@@ -9,7 +9,7 @@ import android.widget.TextView;
 import com.quovantis.bluetoothlibs.DeviceItem;
 import thermometer.quovantis.com.lib.R;
 import com.quovantis.common.event.EventManager;
-import com.quovantis.common.event.EventTypes;
+import thermometer.quovantis.com.lib.thermometer.ThermometerConstants.CHANNELS;
 
 public class DeviceItemView extends FrameLayout implements View.OnClickListener {
 
@@ -55,6 +55,6 @@ public class DeviceItemView extends FrameLayout implements View.OnClickListener
 
     @Override
     public void onClick(View v) {
-        EventManager.getInstance().broadcastEvent(EventTypes.EVENT_ACTION_DEVICE_SELECTED, mDeviceItem);
+        EventManager.getInstance().broadcastEvent(CHANNELS.DEVICE_SELECTED, mDeviceItem);
     }
 }
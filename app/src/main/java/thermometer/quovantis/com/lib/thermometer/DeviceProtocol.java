@@ -0,0 +1,78 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import com.quovantis.bluetoothlibs.DeviceItem;
+import com.quovantis.bluetoothlibs.ManagerConfig;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReading;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Protocol of a thermometer model, it bundles UUIDs of the device, encoder of commands and
+ * decoders of received frames
+ * </p>
+ * <p>
+ * {@link ThermometerManager} scans for devices of service of every registered protocol and select
+ * the protocol once when connecting a device from its advertised services, see
+ * {@link ThermometerManager#registerProtocol(DeviceProtocol)}, and build a table of
+ * {@link FrameHandler} indexed by opcode from {@link #getFrameHandler(int)}, so received frames
+ * are dispatched with a lookup without checking the protocol again. Frames are reassembled by
+ * {@link ThermFrameAssembler} so protocol need to use its frame envelope
+ * </p>
+ *
+ * @see ThermometerProtocol
+ */
+public interface DeviceProtocol {
+
+    /**
+     * Handler of frames of an opcode
+     */
+    interface FrameHandler {
+        /**
+         * Decode frame in reading, method is called on thread of bluetooth callbacks
+         *
+         * @param frame   buffer containing complete frame, it is reused after method returns
+         * @param offset  index of start byte of frame
+         * @param length  length of frame
+         * @param reading reading of connected device which need to update
+         * @return true if reading is updated and it need to broadcast
+         */
+        boolean handleFrame(byte[] frame, int offset, int length, ThermometerReading reading);
+    }
+
+    /**
+     * @param deviceItem device which is going to connect, its advertised services are in
+     *                   {@link DeviceItem#getServiceUUIDs()}
+     * @return true if device uses this protocol
+     */
+    boolean supports(DeviceItem deviceItem);
+
+    /**
+     * @return UUIDs of service and characteristics of device
+     */
+    ManagerConfig getManagerConfig();
+
+    /**
+     * @return command for reading temperature from position to limit, buffer should be read only
+     * if its content is shared
+     */
+    ByteBuffer getReadCommand();
+
+    /**
+     * @param unit ThermometerUnit to set on thermometer
+     * @param mode ThermometerMode to set on thermometer
+     * @return command for settings from position to limit, buffer should be read only if its
+     * content is shared
+     */
+    ByteBuffer getSettingsCommand(ThermometerUnit unit, ThermometerMode mode);
+
+    /**
+     * Method is called once for every opcode when protocol is selected
+     *
+     * @param opcode opcode of frame from 0 to 255
+     * @return handler for frames of the opcode or null if frames need to ignore
+     */
+    FrameHandler getFrameHandler(int opcode);
+}
@@ -0,0 +1,231 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Batch decoder for captured thermometer frames, a capture is decoded in
+ * {@link ThermReadingColumns} in place of a {@link thermometer.quovantis.com.lib.thermometer.models.ThermometerReading}
+ * object per frame
+ * </p>
+ * <p>
+ * Capture is concatenation of records, every record is
+ * <pre>
+ * timestamp (8 bytes big endian)  frame (0xFA  opcode  len  payload[len]  check  0xFF)
+ * </pre>
+ * Length of a record is found from length byte of its frame, incomplete record at end of
+ * capture is ignored. Start and end bytes of frame are checked at every record, on a mismatch
+ * capture is scanned forward for next record with valid frame, same as {@link ThermFrameAssembler}
+ * searches next start byte, so one corrupted length byte loses only its own record. A record whose
+ * next record starts right after it is kept and flagged invalid, so a damaged end byte doesn't drop
+ * its timestamp. Frames are validated same as {@link ThermFrameAssembler}, a frame with
+ * unexpected check byte is decoded and only flagged in {@link ThermReadingColumns#getCheckMismatchFlags()}
+ * </p>
+ * <p>
+ * Large captures can be decoded in parallel on an {@link ExecutorService}, record boundaries are
+ * found in one pass and then ranges of records are decoded in parallel in same columns
+ * </p>
+ */
+public final class ThermBatchDecoder {
+
+    /**
+     * Length of timestamp before every frame in capture
+     */
+    public static final int TIMESTAMP_LENGTH = 8;
+    /**
+     * Minimum number of records decoded by one parallel task
+     */
+    static final int MIN_RECORDS_PER_TASK = 8192;
+
+    private ThermBatchDecoder() {
+    }
+
+    /**
+     * Decode capture in calling thread
+     *
+     * @param capture buffer containing the records
+     * @param offset  index of first record
+     * @param length  length of records
+     * @return decoded columns
+     */
+    public static ThermReadingColumns decode(byte[] capture, int offset, int length) {
+        int[] recordOffsets = indexRecords(capture, offset, length);
+        ThermReadingColumns columns = new ThermReadingColumns(recordOffsets.length);
+        decodeRange(capture, recordOffsets, 0, recordOffsets.length, columns);
+        return columns;
+    }
+
+    /**
+     * Decode capture in parallel on executor, small captures are decoded in calling thread
+     *
+     * @param capture     buffer containing the records
+     * @param offset      index of first record
+     * @param length      length of records
+     * @param executor    executor for decoding tasks
+     * @param parallelism maximum number of parallel tasks, usually number of threads of executor
+     * @return decoded columns
+     * @throws InterruptedException if calling thread is interrupted while waiting for tasks
+     */
+    public static ThermReadingColumns decode(final byte[] capture, int offset, int length
+            , ExecutorService executor, int parallelism) throws InterruptedException {
+        if (executor == null) {
+            throw new IllegalArgumentException("ExecutorService can't be null for parallel decode");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism can't be less than 1");
+        }
+        final int[] recordOffsets = indexRecords(capture, offset, length);
+        final ThermReadingColumns columns = new ThermReadingColumns(recordOffsets.length);
+        int tasks = Math.min(parallelism, recordOffsets.length / MIN_RECORDS_PER_TASK);
+        if (tasks <= 1) {
+            decodeRange(capture, recordOffsets, 0, recordOffsets.length, columns);
+            return columns;
+        }
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(tasks);
+        int recordsPerTask = (recordOffsets.length + tasks - 1) / tasks;
+        for (int start = 0; start < recordOffsets.length; start += recordsPerTask) {
+            final int from = start;
+            final int to = Math.min(start + recordsPerTask, recordOffsets.length);
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    decodeRange(capture, recordOffsets, from, to, columns);
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Decoding of capture failed", cause);
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Find offset of every complete record in capture
+     *
+     * @return offsets of records
+     */
+    private static int[] indexRecords(byte[] capture, int offset, int length) {
+        if (capture == null || offset < 0 || length < 0 || offset + length > capture.length) {
+            throw new IllegalArgumentException("Invalid capture range " + offset + " " + length);
+        }
+        int end = offset + length;
+        int[] offsets = new int[Math.max(16, length / (TIMESTAMP_LENGTH + ThermFrameDecoder.MIN_FRAME_LENGTH + 1))];
+        int count = 0;
+        int position = offset;
+        while (position + TIMESTAMP_LENGTH + ThermFrameAssembler.LENGTH_INDEX < end) {
+            int recordLength = recordLength(capture, position);
+            if (position + recordLength > end || !hasFrameEnvelope(capture, position, recordLength)) {
+                int next = findRecord(capture, position + 1, end);
+                boolean lengthConfirmed = position + recordLength == (next < 0 ? end : next);
+                if (!lengthConfirmed) {
+                    if (next < 0) {
+                        break;
+                    }
+                    position = next;
+                    continue;
+                }
+            }
+            if (count == offsets.length) {
+                int[] grown = new int[count * 2];
+                System.arraycopy(offsets, 0, grown, 0, count);
+                offsets = grown;
+            }
+            offsets[count++] = position;
+            position += recordLength;
+        }
+        if (count == offsets.length) {
+            return offsets;
+        }
+        int[] result = new int[count];
+        System.arraycopy(offsets, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * @return length of record at position from length byte of its frame
+     */
+    private static int recordLength(byte[] capture, int position) {
+        return TIMESTAMP_LENGTH + ThermFrameAssembler.FRAME_OVERHEAD
+                + (capture[position + TIMESTAMP_LENGTH + ThermFrameAssembler.LENGTH_INDEX] & 0xFF);
+    }
+
+    /**
+     * @return true if frame of record has start byte and its end byte is at position of length byte
+     */
+    private static boolean hasFrameEnvelope(byte[] capture, int position, int recordLength) {
+        return ThermFrameAssembler.isValidFrame(capture, position + TIMESTAMP_LENGTH, recordLength - TIMESTAMP_LENGTH);
+    }
+
+    /**
+     * Scan for next complete record whose frame has valid start and end bytes
+     *
+     * @return position of record or -1 if there is no such record before end
+     */
+    private static int findRecord(byte[] capture, int from, int end) {
+        for (int position = from; position + TIMESTAMP_LENGTH + ThermFrameAssembler.LENGTH_INDEX < end; position++) {
+            if (capture[position + TIMESTAMP_LENGTH] != ThermFrameAssembler.FRAME_START) {
+                continue;
+            }
+            int recordLength = recordLength(capture, position);
+            if (position + recordLength <= end && hasFrameEnvelope(capture, position, recordLength)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decode records from index to index in columns
+     */
+    private static void decodeRange(byte[] capture, int[] recordOffsets, int from, int to, ThermReadingColumns columns) {
+        ThermFrameDecoder decoder = new ThermFrameDecoder();
+        for (int i = from; i < to; i++) {
+            int position = recordOffsets[i];
+            columns.mTimestamps[i] = readInt64(capture, position);
+            int frameOffset = position + TIMESTAMP_LENGTH;
+            int frameLength = (capture[frameOffset + ThermFrameAssembler.LENGTH_INDEX] & 0xFF)
+                    + ThermFrameAssembler.FRAME_OVERHEAD;
+            if (ThermFrameAssembler.isValidFrame(capture, frameOffset, frameLength)
+                    && decoder.decode(capture, frameOffset, frameLength)) {
+                columns.mRawTemperatures[i] = decoder.getRawTemperature();
+                columns.mModes[i] = decoder.getThermometerMode().getValue();
+                columns.mUnits[i] = decoder.getThermometerUnit().getValue();
+                columns.mValid[i] = true;
+                columns.mCheckMismatch[i] = !ThermFrameAssembler.hasPayloadSumCheck(capture, frameOffset, frameLength);
+            }
+        }
+    }
+
+    /**
+     * Read signed big endian 64 bit value
+     */
+    private static long readInt64(byte[] buffer, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
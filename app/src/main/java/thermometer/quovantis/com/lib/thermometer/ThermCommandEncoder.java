@@ -0,0 +1,131 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import thermometer.quovantis.com.lib.thermometer.frames.ThermReadCommand;
+import thermometer.quovantis.com.lib.thermometer.frames.ThermSettingsCommand;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Encoder for commands sent to thermometer, every settings command for each
+ * {@link ThermometerUnit} and {@link ThermometerMode} and the read command are built once
+ * when class is loaded and never changed after that, so commands can be shared across threads
+ * </p>
+ * <p>
+ * Commands are available as read only {@link ByteBuffer} or can be copied in caller buffer
+ * without any allocation
+ * </p>
+ * <p>
+ * Settings command layout
+ * <pre>
+ * 0xF5  0x11  0x02  mode  unit  (mode ^ unit)  0xFF
+ * </pre>
+ * Read command layout
+ * <pre>
+ * 0xF5  0x10  0x00  0x00  0xFF
+ * </pre>
+ * Commands are encoded by {@link ThermSettingsCommand} and {@link ThermReadCommand} generated from
+ * src/main/frames/thermometer.frames
+ * </p>
+ */
+public final class ThermCommandEncoder {
+
+    static final byte COMMAND_START = (byte) 0xF5;
+
+    /**
+     * Length of settings command
+     */
+    public static final int SETTINGS_COMMAND_LENGTH = ThermSettingsCommand.LENGTH;
+    /**
+     * Length of read command
+     */
+    public static final int READ_COMMAND_LENGTH = ThermReadCommand.LENGTH;
+
+    private static final byte[] READ_COMMAND = new byte[READ_COMMAND_LENGTH];
+    /**
+     * Settings commands indexed by ordinal of unit and then ordinal of mode
+     */
+    private static final byte[][][] SETTINGS_COMMANDS;
+    private static final ByteBuffer READ_COMMAND_BUFFER = ByteBuffer.wrap(READ_COMMAND).asReadOnlyBuffer();
+    private static final ByteBuffer[][] SETTINGS_COMMAND_BUFFERS;
+
+    static {
+        ThermReadCommand.encode(READ_COMMAND, 0);
+        ThermometerUnit[] units = ThermometerUnit.values();
+        ThermometerMode[] modes = ThermometerMode.values();
+        SETTINGS_COMMANDS = new byte[units.length][modes.length][];
+        SETTINGS_COMMAND_BUFFERS = new ByteBuffer[units.length][modes.length];
+        for (ThermometerUnit unit : units) {
+            for (ThermometerMode mode : modes) {
+                byte[] command = new byte[SETTINGS_COMMAND_LENGTH];
+                ThermSettingsCommand.encode(command, 0, mode.getValue(), unit.getValue());
+                SETTINGS_COMMANDS[unit.ordinal()][mode.ordinal()] = command;
+                SETTINGS_COMMAND_BUFFERS[unit.ordinal()][mode.ordinal()] = ByteBuffer.wrap(command).asReadOnlyBuffer();
+            }
+        }
+    }
+
+    private ThermCommandEncoder() {
+    }
+
+    /**
+     * Get settings command as read only buffer, returned buffer has its own position and limit
+     *
+     * @param unit ThermometerUnit to set on thermometer
+     * @param mode ThermometerMode to set on thermometer
+     * @return read only buffer of settings command
+     */
+    public static ByteBuffer getSettingsCommand(ThermometerUnit unit, ThermometerMode mode) {
+        return SETTINGS_COMMAND_BUFFERS[unit.ordinal()][mode.ordinal()].duplicate();
+    }
+
+    /**
+     * Get read command as read only buffer, returned buffer has its own position and limit
+     *
+     * @return read only buffer of read command
+     */
+    public static ByteBuffer getReadCommand() {
+        return READ_COMMAND_BUFFER.duplicate();
+    }
+
+    /**
+     * Copy settings command in caller buffer
+     *
+     * @param unit   ThermometerUnit to set on thermometer
+     * @param mode   ThermometerMode to set on thermometer
+     * @param dest   caller buffer
+     * @param offset index in caller buffer from where command need to write
+     * @return number of bytes written, {@link #SETTINGS_COMMAND_LENGTH}
+     */
+    public static int writeSettingsCommand(ThermometerUnit unit, ThermometerMode mode, byte[] dest, int offset) {
+        return write(settingsCommand(unit, mode), dest, offset);
+    }
+
+    /**
+     * Copy read command in caller buffer
+     *
+     * @param dest   caller buffer
+     * @param offset index in caller buffer from where command need to write
+     * @return number of bytes written, {@link #READ_COMMAND_LENGTH}
+     */
+    public static int writeReadCommand(byte[] dest, int offset) {
+        return write(READ_COMMAND, dest, offset);
+    }
+
+    /**
+     * Shared settings command array, it must not be given out of encoder
+     */
+    private static byte[] settingsCommand(ThermometerUnit unit, ThermometerMode mode) {
+        return SETTINGS_COMMANDS[unit.ordinal()][mode.ordinal()];
+    }
+
+    private static int write(byte[] command, byte[] dest, int offset) {
+        if (dest == null || offset < 0 || offset + command.length > dest.length) {
+            throw new IllegalArgumentException("Buffer doesn't have space of " + command.length + " bytes at " + offset);
+        }
+        System.arraycopy(command, 0, dest, offset, command.length);
+        return command.length;
+    }
+}
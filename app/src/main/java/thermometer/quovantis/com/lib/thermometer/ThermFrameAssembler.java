@@ -0,0 +1,214 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+/**
+ * <p>
+ * Streaming reassembler for frames received from thermometer, received notification bytes are
+ * appended in a ring buffer and complete frames are emitted once on {@link FrameListener}.
+ * So a frame split in multiple notifications or multiple frames packed in one notification are
+ * handled same as one frame in one notification
+ * </p>
+ * <p>
+ * Frame layout
+ * <pre>
+ * 0xFA  opcode  len  payload[len]  check  0xFF
+ * </pre>
+ * Assembler sync on 0xFA start byte, a frame is emitted only if it is ending with 0xFF, else the
+ * start byte is skipped and assembler sync again on next start byte
+ * </p>
+ * <p>
+ * Check byte is not used for dropping frames, as rule of check byte is not confirmed for the device,
+ * sample frames of ThermUtilsTest have same check byte for every mode and unit. Frames whose check byte is not
+ * low byte of sum of payload bytes are only counted in {@link #getCheckMismatches()}
+ * </p>
+ * <p>
+ * Emitted frame is in a buffer reused by the assembler, it is valid only till
+ * {@link FrameListener#onFrame(byte[], int, int)} returns. Assembler is not thread safe
+ * </p>
+ *
+ * @see ThermFrameDecoder
+ */
+public final class ThermFrameAssembler {
+
+    public static final byte FRAME_START = (byte) 0xFA;
+    public static final byte FRAME_END = (byte) 0xFF;
+    /**
+     * Bytes in frame other than payload, start, opcode, length, check and end byte
+     */
+    static final int FRAME_OVERHEAD = 5;
+    static final int LENGTH_INDEX = 2;
+    private static final int PAYLOAD_INDEX = 3;
+
+    /**
+     * Listener for complete frames
+     */
+    public interface FrameListener {
+        /**
+         * Method will be called for every complete and valid frame
+         *
+         * @param frame  buffer containing the frame, it is reused after method returns
+         * @param offset index of start byte of frame
+         * @param length length of frame
+         */
+        void onFrame(byte[] frame, int offset, int length);
+    }
+
+    private final byte[] mBuffer;
+    private final int mMask;
+    private final byte[] mFrame;
+    private final FrameListener mListener;
+    private int mHead;
+    private int mSize;
+    private long mSkippedBytes;
+    private long mInvalidFrames;
+    private long mCheckMismatches;
+
+    /**
+     * Create new assembler
+     *
+     * @param capacity capacity of ring buffer, it is rounded up to power of two and it is the
+     *                 maximum length of a frame
+     * @param listener listener for complete frames
+     */
+    public ThermFrameAssembler(int capacity, FrameListener listener) {
+        if (capacity < FRAME_OVERHEAD) {
+            throw new IllegalArgumentException("Capacity can't be less than " + FRAME_OVERHEAD);
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("FrameListener can't be null for assembler");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        mBuffer = new byte[size];
+        mMask = size - 1;
+        mFrame = new byte[size];
+        mListener = listener;
+    }
+
+    /**
+     * Append received bytes, complete frames are emitted before method returns
+     *
+     * @param data   received bytes
+     * @param offset index of first byte in data
+     * @param length number of bytes
+     */
+    public void append(byte[] data, int offset, int length) {
+        while (length > 0) {
+            int count = Math.min(length, mBuffer.length - mSize);
+            int tail = (mHead + mSize) & mMask;
+            int firstPart = Math.min(count, mBuffer.length - tail);
+            System.arraycopy(data, offset, mBuffer, tail, firstPart);
+            System.arraycopy(data, offset + firstPart, mBuffer, 0, count - firstPart);
+            mSize += count;
+            offset += count;
+            length -= count;
+            drainFrames();
+        }
+    }
+
+    /**
+     * Discard all buffered bytes, call it on new connection
+     */
+    public void reset() {
+        mHead = 0;
+        mSize = 0;
+    }
+
+    /**
+     * @return number of bytes skipped while searching for start byte
+     */
+    public long getSkippedBytes() {
+        return mSkippedBytes;
+    }
+
+    /**
+     * @return number of frames dropped because of wrong end byte or length
+     */
+    public long getInvalidFrames() {
+        return mInvalidFrames;
+    }
+
+    /**
+     * @return number of emitted frames whose check byte is not low byte of sum of payload bytes
+     */
+    public long getCheckMismatches() {
+        return mCheckMismatches;
+    }
+
+    /**
+     * Emit all complete frames from ring buffer
+     */
+    private void drainFrames() {
+        while (mSize > 0) {
+            if (byteAt(0) != FRAME_START) {
+                skip(1);
+                mSkippedBytes++;
+                continue;
+            }
+            if (mSize <= LENGTH_INDEX) {
+                return;
+            }
+            int frameLength = (byteAt(LENGTH_INDEX) & 0xFF) + FRAME_OVERHEAD;
+            if (frameLength > mBuffer.length) {
+                skip(1);
+                mInvalidFrames++;
+                continue;
+            }
+            if (mSize < frameLength) {
+                return;
+            }
+            for (int i = 0; i < frameLength; i++) {
+                mFrame[i] = byteAt(i);
+            }
+            if (!isValidFrame(mFrame, 0, frameLength)) {
+                skip(1);
+                mInvalidFrames++;
+                continue;
+            }
+            if (!hasPayloadSumCheck(mFrame, 0, frameLength)) {
+                mCheckMismatches++;
+            }
+            skip(frameLength);
+            mListener.onFrame(mFrame, 0, frameLength);
+        }
+    }
+
+    /**
+     * Check start byte, end byte and length byte of a complete frame, it is the validation of
+     * frames for the assembler and {@link ThermBatchDecoder}. Check byte is not verified,
+     * see {@link #hasPayloadSumCheck(byte[], int, int)}
+     *
+     * @param frame  buffer containing the frame
+     * @param offset index of start byte of frame
+     * @param length length of frame
+     * @return true if frame is valid
+     */
+    static boolean isValidFrame(byte[] frame, int offset, int length) {
+        return length >= FRAME_OVERHEAD && frame[offset] == FRAME_START && frame[offset + length - 1] == FRAME_END
+                && (frame[offset + LENGTH_INDEX] & 0xFF) + FRAME_OVERHEAD == length;
+    }
+
+    /**
+     * Check whether check byte of a valid frame is low byte of sum of payload bytes, mismatch is only
+     * reported as the rule is not confirmed for the device
+     *
+     * @param frame  buffer containing the frame
+     * @param offset index of start byte of frame
+     * @param length length of frame
+     * @return true if check byte is low byte of sum of payload bytes
+     */
+    static boolean hasPayloadSumCheck(byte[] frame, int offset, int length) {
+        int sum = 0;
+        for (int i = offset + PAYLOAD_INDEX; i < offset + length - 2; i++) {
+            sum += frame[i] & 0xFF;
+        }
+        return frame[offset + length - 2] == (byte) sum;
+    }
+
+    private byte byteAt(int index) {
+        return mBuffer[(mHead + index) & mMask];
+    }
+
+    private void skip(int count) {
+        mHead = (mHead + count) & mMask;
+        mSize -= count;
+    }
+}
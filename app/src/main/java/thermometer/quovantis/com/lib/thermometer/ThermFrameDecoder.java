@@ -0,0 +1,187 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import thermometer.quovantis.com.lib.thermometer.frames.ThermReadingFrame;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReading;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Reusable decoder for thermometer reading frame, it parse the frame directly from caller
+ * byte[] with offset and length or from a {@link ByteBuffer} into primitive fields of the decoder.
+ * Decoder object is a flyweight so it can be kept and used for every received frame without
+ * any allocation
+ * </p>
+ * <p>
+ * Frame layout of thermometer reading
+ * <pre>
+ * index  0     1     2     3-4      5-6     7-8    9     10    11     12
+ *        0xFA  0x10  len   surface  body    -      mode  unit  check  0xFF
+ * </pre>
+ * Temperatures are unsigned little endian values in tenth of celsius degree, both temperatures
+ * are decoded from every frame and mode byte tells which one is active on the device. Offsets are
+ * from {@link ThermReadingFrame} generated from src/main/frames/thermometer.frames
+ * </p>
+ * <p>
+ * Decoder is not thread safe, use one decoder per thread
+ * </p>
+ *
+ * @see ThermUtils#getReadings(byte[], ThermometerReading)
+ */
+public final class ThermFrameDecoder {
+
+    /**
+     * Minimum length of frame having all the reading fields, end byte is not needed
+     */
+    public static final int MIN_FRAME_LENGTH = ThermReadingFrame.END_INDEX;
+
+    static final int SURFACE_TEMP_INDEX = ThermReadingFrame.SURFACE_TEMPERATURE_INDEX;
+    static final int BODY_TEMP_INDEX = ThermReadingFrame.BODY_TEMPERATURE_INDEX;
+    static final int MODE_INDEX = ThermReadingFrame.MODE_INDEX;
+    static final int UNIT_INDEX = ThermReadingFrame.UNIT_INDEX;
+
+    private boolean mValid;
+    private int mRawSurfaceTemperature;
+    private int mRawBodyTemperature;
+    private ThermometerMode mThermometerMode;
+    private ThermometerUnit mThermometerUnit;
+
+    /**
+     * Decode frame from byte[]
+     *
+     * @param frame  buffer containing the frame
+     * @param offset index of first byte of frame in buffer
+     * @param length length of frame
+     * @return true if frame is decoded else false if frame is too short, in that case decoder values are not valid
+     */
+    public boolean decode(byte[] frame, int offset, int length) {
+        if (frame == null || length < MIN_FRAME_LENGTH || offset < 0 || offset + length > frame.length) {
+            mValid = false;
+            return false;
+        }
+        mThermometerMode = ThermometerMode.getEnumForValue((byte) ThermReadingFrame.getMode(frame, offset));
+        mThermometerUnit = ThermometerUnit.getEnumForValue((byte) ThermReadingFrame.getUnit(frame, offset));
+        mRawSurfaceTemperature = ThermReadingFrame.getSurfaceTemperature(frame, offset);
+        mRawBodyTemperature = ThermReadingFrame.getBodyTemperature(frame, offset);
+        mValid = true;
+        return true;
+    }
+
+    /**
+     * Decode frame from {@link ByteBuffer}, frame is read from current position to limit of buffer
+     * and position of buffer is not changed
+     *
+     * @param frame buffer containing the frame
+     * @return true if frame is decoded else false if frame is too short, in that case decoder values are not valid
+     */
+    public boolean decode(ByteBuffer frame) {
+        if (frame == null || frame.remaining() < MIN_FRAME_LENGTH) {
+            mValid = false;
+            return false;
+        }
+        int offset = frame.position();
+        mThermometerMode = ThermometerMode.getEnumForValue(frame.get(offset + MODE_INDEX));
+        mThermometerUnit = ThermometerUnit.getEnumForValue(frame.get(offset + UNIT_INDEX));
+        mRawSurfaceTemperature = readUInt16(frame.get(offset + SURFACE_TEMP_INDEX), frame.get(offset + SURFACE_TEMP_INDEX + 1));
+        mRawBodyTemperature = readUInt16(frame.get(offset + BODY_TEMP_INDEX), frame.get(offset + BODY_TEMP_INDEX + 1));
+        mValid = true;
+        return true;
+    }
+
+    /**
+     * @return true if last decoded frame was valid
+     */
+    public boolean isValid() {
+        return mValid;
+    }
+
+    /**
+     * @return temperature of current mode in tenth of celsius degree as sent by thermometer
+     */
+    public int getRawTemperature() {
+        return mThermometerMode == ThermometerMode.SURFACE ? mRawSurfaceTemperature : mRawBodyTemperature;
+    }
+
+    /**
+     * @return surface temperature in tenth of celsius degree as sent by thermometer
+     */
+    public int getRawSurfaceTemperature() {
+        return mRawSurfaceTemperature;
+    }
+
+    /**
+     * @return body temperature in tenth of celsius degree as sent by thermometer
+     */
+    public int getRawBodyTemperature() {
+        return mRawBodyTemperature;
+    }
+
+    public ThermometerMode getThermometerMode() {
+        return mThermometerMode;
+    }
+
+    public ThermometerUnit getThermometerUnit() {
+        return mThermometerUnit;
+    }
+
+    /**
+     * @return temperature in tenth of degree in unit of the frame
+     */
+    public int getDeciTemperature() {
+        return toFrameUnit(getRawTemperature());
+    }
+
+    /**
+     * @return surface temperature in tenth of degree in unit of the frame
+     */
+    public int getSurfaceDeciTemperature() {
+        return toFrameUnit(mRawSurfaceTemperature);
+    }
+
+    /**
+     * @return body temperature in tenth of degree in unit of the frame
+     */
+    public int getBodyDeciTemperature() {
+        return toFrameUnit(mRawBodyTemperature);
+    }
+
+    /**
+     * @return temperature in unit of the frame, same as {@link ThermUtils#getReadings(byte[], ThermometerReading)}
+     */
+    public float getTemperature() {
+        return getDeciTemperature() / 10f;
+    }
+
+    /**
+     * Copy decoded values in reading object
+     *
+     * @param reading ThermometerReading which need to update
+     * @return same reading object
+     */
+    public ThermometerReading applyTo(ThermometerReading reading) {
+        reading.setThermometerMode(mThermometerMode);
+        reading.setThermometerUnit(mThermometerUnit);
+        reading.setDeciTemperature(getDeciTemperature());
+        reading.setSurfaceDeciTemperature(getSurfaceDeciTemperature());
+        reading.setBodyDeciTemperature(getBodyDeciTemperature());
+        return reading;
+    }
+
+    private int toFrameUnit(int rawTemperature) {
+        return mThermometerUnit == ThermometerUnit.FAHRENHEIT
+                ? ThermUtils.getFahrenheitDeciTemperature(rawTemperature) : rawTemperature;
+    }
+
+    /**
+     * Read unsigned little endian 16 bit value
+     *
+     * @param low  low byte
+     * @param high high byte
+     * @return value
+     */
+    static int readUInt16(byte low, byte high) {
+        return (low & 0xFF) | ((high & 0xFF) << 8);
+    }
+}
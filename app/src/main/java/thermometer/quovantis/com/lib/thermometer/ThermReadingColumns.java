@@ -0,0 +1,90 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+/**
+ * <p>
+ * Readings of a capture decoded by {@link ThermBatchDecoder} in primitive columns, value of
+ * a record is at same index in every column
+ * </p>
+ * <p>
+ * Column getters return backing arrays without copy so analysis can run directly on them,
+ * values of a record which is not valid are 0
+ * </p>
+ */
+public final class ThermReadingColumns {
+
+    final long[] mTimestamps;
+    final int[] mRawTemperatures;
+    final byte[] mModes;
+    final byte[] mUnits;
+    final boolean[] mValid;
+    final boolean[] mCheckMismatch;
+
+    ThermReadingColumns(int size) {
+        mTimestamps = new long[size];
+        mRawTemperatures = new int[size];
+        mModes = new byte[size];
+        mUnits = new byte[size];
+        mValid = new boolean[size];
+        mCheckMismatch = new boolean[size];
+    }
+
+    /**
+     * @return number of records
+     */
+    public int size() {
+        return mTimestamps.length;
+    }
+
+    /**
+     * @return capture timestamp of records as written in capture
+     */
+    public long[] getTimestamps() {
+        return mTimestamps;
+    }
+
+    /**
+     * @return temperature of active mode in tenth of celsius degree as sent by thermometer
+     */
+    public int[] getRawTemperatures() {
+        return mRawTemperatures;
+    }
+
+    /**
+     * @return value of {@link ThermometerMode} of records
+     */
+    public byte[] getModes() {
+        return mModes;
+    }
+
+    /**
+     * @return value of {@link ThermometerUnit} of records
+     */
+    public byte[] getUnits() {
+        return mUnits;
+    }
+
+    /**
+     * @return true at index of records having a valid frame
+     */
+    public boolean[] getValidFlags() {
+        return mValid;
+    }
+
+    /**
+     * @return true at index of valid records whose check byte is not low byte of sum of payload bytes
+     */
+    public boolean[] getCheckMismatchFlags() {
+        return mCheckMismatch;
+    }
+
+    public ThermometerMode getThermometerMode(int index) {
+        return ThermometerMode.getEnumForValue(mModes[index]);
+    }
+
+    public ThermometerUnit getThermometerUnit(int index) {
+        return ThermometerUnit.getEnumForValue(mUnits[index]);
+    }
+}
@@ -11,63 +11,138 @@ import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
  * @see #getSettings(ThermometerUnit, ThermometerMode)
  * @see #getReadings(byte[], ThermometerReading)
  * @see #getCelsiusTemperature(float)
+ * @see #getFahrenheitDeciTemperature(int)
  * @see #THERM_SETTING_START_CMD
+ * @see ThermCommandEncoder
  */
 public class ThermUtils {
 
-    private static final byte THERM_SETTING_START_CMD = (byte) 0xF5;
-    private static final byte THERM_END_CMD = (byte) 0xFF;
+    private static final byte THERM_SETTING_START_CMD = ThermCommandEncoder.COMMAND_START;
     /**
      * Byte[] buffer command for reading temperature from thermometer device
+     *
+     * @deprecated array is mutable and shared with every caller, use {@link ThermCommandEncoder#getReadCommand()}
+     * or {@link ThermCommandEncoder#writeReadCommand(byte[], int)}
      */
-    public static final byte[] THERM_TEMP_READ_CMD = new byte[]{THERM_SETTING_START_CMD
-            , 0x10, 0, 0, THERM_END_CMD};
+    @Deprecated
+    public static final byte[] THERM_TEMP_READ_CMD = new byte[ThermCommandEncoder.READ_COMMAND_LENGTH];
+
+    static {
+        ThermCommandEncoder.writeReadCommand(THERM_TEMP_READ_CMD, 0);
+    }
+
+    /**
+     * Powers of ten for {@link #round(float, int)}
+     */
+    private static final int[] POWERS_OF_TEN = new int[]{1, 10, 100, 1000, 10000, 100000, 1000000
+            , 10000000, 100000000, 1000000000};
 
     /**
      * Method to get thermometer setting byte buffer for the mode and unit
-     * setting values
+     * setting values, new array is returned on every call
+     * <p/>
+     * For sending settings without allocation use {@link ThermCommandEncoder}
      *
      * @param unit ThermometerUnit enum which contain the thermometer different unit value
      * @param mode ThermometerMode enum which contain the thermometer different mode value
      * @return byte[] buffer with provided setting values
      */
     public static byte[] getSettings(ThermometerUnit unit, ThermometerMode mode) {
-        byte checkByte = (byte) (mode.getValue() ^ unit.getValue());
-
-        byte[] config = new byte[]{THERM_SETTING_START_CMD, 0x11, 0x02, mode.getValue()
-                , unit.getValue(), checkByte, THERM_END_CMD};
-
-        return config;
+        byte[] settings = new byte[ThermCommandEncoder.SETTINGS_COMMAND_LENGTH];
+        ThermCommandEncoder.writeSettingsCommand(unit, mode, settings, 0);
+        return settings;
     }
 
     /**
      * Method to read ThermometerReading object from byte[] buffer received in thermometer
      * reading response
      *
+     * For decoding every received frame without allocation use {@link ThermFrameDecoder}
+     *
      * @param readings           byte [] buffer of thermometer readings
      * @param thermometerReading ThermometerReading object it can be either null or old object
      * @return ThermometerReading created or updated ThermometerReading object for the received byte[] reading buffer
      */
     public static ThermometerReading getReadings(byte[] readings, ThermometerReading thermometerReading) {
-        if (readings == null || readings.length < 12) {
+        if (readings == null || readings.length < ThermFrameDecoder.MIN_FRAME_LENGTH) {
             return thermometerReading;
         }
         if (null == thermometerReading) {
             thermometerReading = new ThermometerReading();
         }
 
-        thermometerReading.setThermometerMode(ThermometerMode.getEnumForValue(readings[9]));
-        thermometerReading.setThermometerUnit(ThermometerUnit.getEnumForValue(readings[10]));
+        thermometerReading.setThermometerMode(ThermometerMode.getEnumForValue(readings[ThermFrameDecoder.MODE_INDEX]));
+        thermometerReading.setThermometerUnit(ThermometerUnit.getEnumForValue(readings[ThermFrameDecoder.UNIT_INDEX]));
 
-        int i = thermometerReading.getThermometerMode() == ThermometerMode.SURFACE ? 3 : 5;
-
-        float temp = (((readings[i] & 0xFF) + ((readings[i + 1] & 0xFF) * 256f)) / 10f);
-        thermometerReading.setTemperature(thermometerReading.getThermometerUnit() == ThermometerUnit.FAHRENHEIT
-                ? getFahrenheitTemperature(temp) : temp);
+        boolean fahrenheit = thermometerReading.getThermometerUnit() == ThermometerUnit.FAHRENHEIT;
+        int surface = ThermFrameDecoder.readUInt16(readings[ThermFrameDecoder.SURFACE_TEMP_INDEX]
+                , readings[ThermFrameDecoder.SURFACE_TEMP_INDEX + 1]);
+        int body = ThermFrameDecoder.readUInt16(readings[ThermFrameDecoder.BODY_TEMP_INDEX]
+                , readings[ThermFrameDecoder.BODY_TEMP_INDEX + 1]);
+        thermometerReading.setSurfaceDeciTemperature(fahrenheit ? getFahrenheitDeciTemperature(surface) : surface);
+        thermometerReading.setBodyDeciTemperature(fahrenheit ? getFahrenheitDeciTemperature(body) : body);
+        thermometerReading.setDeciTemperature(thermometerReading.getThermometerMode() == ThermometerMode.SURFACE
+                ? thermometerReading.getSurfaceDeciTemperature() : thermometerReading.getBodyDeciTemperature());
 
         return thermometerReading;
     }
 
+    /**
+     * Convert into Fahrenheit temperature from celsius in tenth of degree, conversion is exact
+     * and rounded to nearest tenth, it is same as {@link #getFahrenheitTemperature(float)} for
+     * positive temperatures and also correct for negative temperatures
+     *
+     * @param deciTemp temperature in tenth of celsius degree
+     * @return temperature in tenth of Fahrenheit degree
+     */
+    public static int getFahrenheitDeciTemperature(int deciTemp) {
+        //F * 10 = (C * 10) * 1.8 + 320, remainder of 18 * C / 10 is even so it is never a tie
+        return floorDiv(18 * deciTemp + 3200 + 5, 10);
+    }
+
+    /**
+     * Convert into celsius temperature from Fahrenheit in tenth of degree, conversion is exact
+     * and rounded to nearest tenth, it is same as {@link #getCelsiusTemperature(float)} for
+     * positive temperatures and also correct for negative temperatures
+     *
+     * @param deciTemp temperature in tenth of Fahrenheit degree
+     * @return temperature in tenth of celsius degree
+     */
+    public static int getCelsiusDeciTemperature(int deciTemp) {
+        //C * 10 = (F * 10 - 320) * 10 / 18, remainder is a multiple of 10 / 18 so it is never a tie
+        return floorDiv(10 * (deciTemp - 320) + 9, 18);
+    }
+
+    /**
+     * Convert temperatures in tenth of degree to other unit in place, use it for converting
+     * a history of readings
+     *
+     * @param deciTemps temperatures in tenth of degree
+     * @param offset    index of first temperature
+     * @param length    number of temperatures
+     * @param toUnit    unit in which temperatures need to convert, temperatures are in other unit
+     */
+    public static void convertDeciTemperatures(int[] deciTemps, int offset, int length, ThermometerUnit toUnit) {
+        int end = offset + length;
+        if (toUnit == ThermometerUnit.FAHRENHEIT) {
+            for (int i = offset; i < end; i++) {
+                deciTemps[i] = getFahrenheitDeciTemperature(deciTemps[i]);
+            }
+        } else {
+            for (int i = offset; i < end; i++) {
+                deciTemps[i] = getCelsiusDeciTemperature(deciTemps[i]);
+            }
+        }
+    }
+
+    /**
+     * Integer division rounded towards negative infinity
+     */
+    private static int floorDiv(int value, int divisor) {
+        int quotient = value / divisor;
+        return (value % divisor < 0) ? quotient - 1 : quotient;
+    }
+
     /**
      * Convert into celsius temperature from Fahrenheit
      *
@@ -96,8 +171,15 @@ public class ThermUtils {
         return round(abs, 1);
     }
 
+    /**
+     * Round value to provided decimal digits
+     *
+     * @param value value
+     * @param digit number of decimal digits from 0 to 9
+     * @return rounded value
+     */
     public static float round(float value, int digit) {
-        int roundFigure = (int) Math.pow(10, digit);
+        int roundFigure = POWERS_OF_TEN[digit];
         int valueMul = Math.round(value * roundFigure);
         return (float) valueMul / (float) roundFigure;
     }
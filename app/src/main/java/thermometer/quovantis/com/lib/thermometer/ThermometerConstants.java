@@ -1,5 +1,10 @@
 package thermometer.quovantis.com.lib.thermometer;
 
+import com.quovantis.bluetoothlibs.DeviceItem;
+import com.quovantis.common.event.EventChannel;
+import com.quovantis.common.event.EventTypes;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReadingSnapshot;
+
 import java.util.UUID;
 
 public interface ThermometerConstants {
@@ -9,5 +14,18 @@ public interface ThermometerConstants {
         UUID WRITE_CHARACTERISTIC_ID = UUID.fromString("0000fe11-0000-1000-8000-00805f9b34fb");
         UUID CLIENT_CONFIG_ID = UUID.fromString("00002902-0000-1000-8000-00805f9b34fb");
     }
+
+    /**
+     * Typed event channels for the actions of {@link EventTypes}, they are kept here and not with
+     * {@link EventTypes} as common module can't see the data types of the channels
+     */
+    interface CHANNELS {
+        EventChannel<DeviceItem> DEVICE_STATE_CHANGED = EventChannel.create(EventTypes.EVENT_ACTION_DEVICE_STATE_CHANGED
+                , DeviceItem.class);
+        EventChannel<ThermometerReadingSnapshot> TEMPERATURE_READING_RECEIVED = EventChannel.create(EventTypes
+                .EVENT_ACTION_TEMPERATURE_READING_RECEIVED, ThermometerReadingSnapshot.class);
+        EventChannel<DeviceItem> DEVICE_SELECTED = EventChannel.create(EventTypes.EVENT_ACTION_DEVICE_SELECTED
+                , DeviceItem.class);
+    }
 }
 
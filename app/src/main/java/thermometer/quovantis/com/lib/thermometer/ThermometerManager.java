@@ -1,20 +1,28 @@
 package thermometer.quovantis.com.lib.thermometer;
 
 import android.content.Context;
-import com.quovantis.bluetoothlibs.BLECharChangeListener;
+import com.quovantis.bluetoothlibs.BLEBufferedCharChangeListener;
+import com.quovantis.bluetoothlibs.BLETimestampedCharChangeListener;
 import com.quovantis.bluetoothlibs.BluetoothManager;
 import com.quovantis.bluetoothlibs.DeviceItem;
 import com.quovantis.bluetoothlibs.ManagerConfig;
+import com.quovantis.bluetoothlibs.ReceiveBuffer;
 import com.quovantis.common.event.EventManager;
 import com.quovantis.common.event.EventTypes;
 import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
 import thermometer.quovantis.com.lib.thermometer.models.ThermometerReading;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReadingSnapshot;
 import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import static thermometer.quovantis.com.lib.thermometer.ThermometerConstants.UUIDS.*;
+import static thermometer.quovantis.com.lib.thermometer.ThermometerConstants.CHANNELS;
 
 /**
  * ThermometerManager manager will be responsible for managing
@@ -30,7 +38,16 @@ import static thermometer.quovantis.com.lib.thermometer.ThermometerConstants.UUI
  * which provided {@link DeviceItem} in parameter of {@link EventManager.EventReceivedListener#onEventReceived(Object)}
  * <p/>
  * To receive callback for the readings register event with event manager for {@link EventTypes#EVENT_ACTION_TEMPERATURE_READING_RECEIVED}
- * which provided {@link ThermometerReading} in parameter of {@link EventManager.EventReceivedListener#onEventReceived(Object)}
+ * which provided {@link ThermometerReadingSnapshot} in parameter of {@link EventManager.EventReceivedListener#onEventReceived(Object)}
+ * the reading action is sticky so last reading of connected device is delivered immediately on registration,
+ * delivered readings are immutable snapshots so they are not changed by next readings or by
+ * {@link ThermometerManager#changeUnit()} and {@link ThermometerManager#changeMode()}. Readings are
+ * broadcast without holding lock of manager, so a listener can call methods of manager
+ * <p/>
+ * Typed channels of these actions are available in {@link ThermometerConstants.CHANNELS}
+ * <p/>
+ * Other thermometer models can be supported by registering their {@link DeviceProtocol} using
+ * {@link ThermometerManager#registerProtocol(DeviceProtocol)}, else {@link ThermometerProtocol} is used
  *
  * @see ThermometerManager#getInstance(Context)
  * @see ThermometerManager#connectThermometer(DeviceItem)
@@ -43,9 +60,39 @@ public class ThermometerManager {
 
     private BluetoothManager mBluetoothManager;
     private static ThermometerManager sInstance;
+    /**
+     * Working reading which is updated by received frames and setting changes, it is never
+     * given out of manager, guarded by manager lock
+     */
     private ThermometerReading mThermometerReading;
-    private List<DeviceItem> mDeviceItems = new ArrayList<DeviceItem>(5);
+    /**
+     * Snapshot of working reading which was published last
+     */
+    private volatile ThermometerReadingSnapshot mPublishedReading;
+    /**
+     * Updated on bluetooth callback thread and read on main thread
+     */
+    private List<DeviceItem> mDeviceItems = new CopyOnWriteArrayList<DeviceItem>();
     private DeviceItem mConnectedDevice;
+    private final ThermometerCallback mThermometerCallback = new ThermometerCallback();
+    private final Context mContext;
+    /**
+     * Registered protocols, checked in order of registration before default protocol
+     */
+    private final List<DeviceProtocol> mProtocols = new ArrayList<DeviceProtocol>(2);
+    private final DeviceProtocol mDefaultProtocol = new ThermometerProtocol();
+    /**
+     * Protocol of connected device
+     */
+    private volatile DeviceProtocol mProtocol = mDefaultProtocol;
+    /**
+     * Frame handlers of {@link #mProtocol} indexed by opcode
+     */
+    private volatile DeviceProtocol.FrameHandler[] mFrameHandlers = buildFrameHandlers(mDefaultProtocol);
+    /**
+     * true while scan started by {@link #startScanForBTDevices()} is running
+     */
+    private boolean mScanning;
 
     /**
      * Create new instance
@@ -53,16 +100,12 @@ public class ThermometerManager {
      * @param context Context
      */
     private ThermometerManager(Context context) {
-        ManagerConfig managerConfig = new ManagerConfig()
-                .setDeviceUUID(MY_UUID)
-                .setCharactristicUUID(CHARACTERISTIC_ID)
-                .setCharConfigUUID(CLIENT_CONFIG_ID)
-                .setWriteCharUUID(WRITE_CHARACTERISTIC_ID);
+        mContext = context.getApplicationContext();
         mDeviceItems.clear();
-        mBluetoothManager = BluetoothManager.getInstance(context.getApplicationContext()
-                , managerConfig);
-        mBluetoothManager.setCallbackListener(new ThermometerCallback());
-        mBluetoothManager.initService();
+        initBluetoothManager(mDefaultProtocol.getManagerConfig());
+        //only latest reading is useful for the listeners and new listeners can show it immediately
+        EventManager.getInstance().setConflating(EventTypes.EVENT_ACTION_TEMPERATURE_READING_RECEIVED, true);
+        EventManager.getInstance().setSticky(EventTypes.EVENT_ACTION_TEMPERATURE_READING_RECEIVED, true);
     }
 
     /**
@@ -78,6 +121,29 @@ public class ThermometerManager {
         return sInstance;
     }
 
+    /**
+     * Register protocol of a thermometer model, protocol is selected when connecting a device
+     * which is supported by it, register protocols before {@link #startScanForBTDevices()} so
+     * devices of their services are found
+     *
+     * @param protocol DeviceProtocol
+     */
+    public void registerProtocol(DeviceProtocol protocol) {
+        if (null == protocol) {
+            throw new IllegalArgumentException("DeviceProtocol can't be null for registration");
+        }
+        if (!mProtocols.contains(protocol)) {
+            mProtocols.add(protocol);
+        }
+    }
+
+    /**
+     * @return protocol of connected or last connected device
+     */
+    public DeviceProtocol getProtocol() {
+        return mProtocol;
+    }
+
     /**
      * Get list of visible bluetooth devices
      *
@@ -88,10 +154,11 @@ public class ThermometerManager {
     }
 
     /**
-     * Method for Starting scanning of bluetooth devices
+     * Method for Starting scanning of bluetooth devices of service of any registered protocol
      */
     public void startScanForBTDevices() {
-        mBluetoothManager.scan(true);
+        mBluetoothManager.scan(true, getScanUUIDs());
+        mScanning = true;
     }
 
     /**
@@ -99,6 +166,21 @@ public class ThermometerManager {
      */
     public void stopScanForBTDevices() {
         mBluetoothManager.scan(false);
+        mScanning = false;
+    }
+
+    /**
+     * @return service UUIDs of registered protocols and default protocol
+     */
+    private UUID[] getScanUUIDs() {
+        Set<UUID> uuids = new LinkedHashSet<UUID>();
+        for (DeviceProtocol protocol : mProtocols) {
+            if (null != protocol.getManagerConfig().getDeviceUUID()) {
+                uuids.add(protocol.getManagerConfig().getDeviceUUID());
+            }
+        }
+        uuids.add(mDefaultProtocol.getManagerConfig().getDeviceUUID());
+        return uuids.toArray(new UUID[uuids.size()]);
     }
 
     /**
@@ -111,10 +193,20 @@ public class ThermometerManager {
             throw new IllegalArgumentException("DeviceItem can't be null for making connection");
         }
         mConnectedDevice = deviceItem;
+        //reading of previous device should not be delivered for new connection
+        EventManager.getInstance().removeStickyEvent(EventTypes.EVENT_ACTION_TEMPERATURE_READING_RECEIVED);
+        //partial frame of previous device should not be joined with new device bytes
+        synchronized (this) {
+            mThermometerCallback.mFrameAssembler.reset();
+        }
+        selectProtocol(deviceItem);
 
         if (mBluetoothManager.connect(deviceItem.getDeviceAddress(), true)) {
-            mThermometerReading = new ThermometerReading(0.0f
-                    , ThermometerUnit.FAHRENHEIT, ThermometerMode.BODY);
+            synchronized (this) {
+                mThermometerReading = new ThermometerReading(0.0f
+                        , ThermometerUnit.FAHRENHEIT, ThermometerMode.BODY);
+                mPublishedReading = new ThermometerReadingSnapshot(mThermometerReading);
+            }
             return true;
         }
         return false;
@@ -128,7 +220,7 @@ public class ThermometerManager {
         if (mConnectedDevice == null) {
             return;
         }
-        mBluetoothManager.sendCommands(ThermUtils.THERM_TEMP_READ_CMD);
+        mBluetoothManager.sendCommands(toArray(mProtocol.getReadCommand()));
     }
 
     /**
@@ -139,23 +231,27 @@ public class ThermometerManager {
      * @return true if unit is changed on thermometer device else false
      */
     public boolean changeUnit() {
-        if (mConnectedDevice == null) {
-            return false;
-        }
-        if (null != mThermometerReading) {
+        ThermometerReadingSnapshot snapshot;
+        byte[] thermSettings;
+        synchronized (this) {
+            if (mConnectedDevice == null || null == mThermometerReading) {
+                return false;
+            }
             ThermometerUnit unit = mThermometerReading.getThermometerUnit();
 
             int newUnit = (unit.getValue() + 1) % 2;
-            mThermometerReading.setThermometerUnit(ThermometerUnit.getEnumForValue((byte) newUnit));
-            mThermometerReading.setTemperature(mThermometerReading.getThermometerUnit() == ThermometerUnit.FAHRENHEIT
-                    ? ThermUtils.getFahrenheitTemperature(mThermometerReading.getTemperature())
-                    : ThermUtils.getCelsiusTemperature(mThermometerReading.getTemperature()));
+            ThermometerUnit thermometerUnit = ThermometerUnit.getEnumForValue((byte) newUnit);
+            mThermometerReading.setThermometerUnit(thermometerUnit);
+            mThermometerReading.setDeciTemperature(convertDeciTemperature(mThermometerReading.getDeciTemperature(), thermometerUnit));
+            mThermometerReading.setBodyDeciTemperature(convertDeciTemperature(mThermometerReading.getBodyDeciTemperature(), thermometerUnit));
+            mThermometerReading.setSurfaceDeciTemperature(convertDeciTemperature(mThermometerReading.getSurfaceDeciTemperature(), thermometerUnit));
+            snapshot = publishReading();
 
-            byte[] thermSettings = ThermUtils.getSettings(ThermometerUnit.getEnumForValue((byte) newUnit)
-                    , mThermometerReading.getThermometerMode());
-            return mBluetoothManager.sendCommands(thermSettings);
+            thermSettings = toArray(mProtocol.getSettingsCommand(ThermometerUnit.getEnumForValue((byte) newUnit)
+                    , mThermometerReading.getThermometerMode()));
         }
-        return false;
+        broadcastReading(snapshot);
+        return mBluetoothManager.sendCommands(thermSettings);
     }
 
     /**
@@ -166,19 +262,133 @@ public class ThermometerManager {
      * @return true if mode is changed on thermometer device else false
      */
     public boolean changeMode() {
-        if (mConnectedDevice == null) {
-            return false;
-        }
-        if (null != mThermometerReading) {
+        ThermometerReadingSnapshot snapshot;
+        byte[] thermSettings;
+        synchronized (this) {
+            if (mConnectedDevice == null || null == mThermometerReading) {
+                return false;
+            }
             ThermometerMode mode = mThermometerReading.getThermometerMode();
             int newMode = (mode.getValue() + 1) % 2;
             mThermometerReading.setThermometerMode(ThermometerMode.getEnumForValue((byte) newMode));
+            //both temperatures are received in every frame so temperature of new mode is already known
+            mThermometerReading.setDeciTemperature(mThermometerReading.getThermometerMode() == ThermometerMode.SURFACE
+                    ? mThermometerReading.getSurfaceDeciTemperature() : mThermometerReading.getBodyDeciTemperature());
+            snapshot = publishReading();
 
-            byte[] thermSettings = ThermUtils.getSettings(mThermometerReading.getThermometerUnit()
-                    , ThermometerMode.getEnumForValue((byte) newMode));
-            return mBluetoothManager.sendCommands(thermSettings);
+            thermSettings = toArray(mProtocol.getSettingsCommand(mThermometerReading.getThermometerUnit()
+                    , ThermometerMode.getEnumForValue((byte) newMode)));
         }
-        return false;
+        broadcastReading(snapshot);
+        return mBluetoothManager.sendCommands(thermSettings);
+    }
+
+    /**
+     * Take snapshot of working reading as the latest reading, caller must hold manager lock and
+     * call {@link #broadcastReading(ThermometerReadingSnapshot)} after releasing it.
+     * Every published reading is a new snapshot so a listener can keep it as long as it wants
+     *
+     * @return snapshot which need to broadcast
+     */
+    private ThermometerReadingSnapshot publishReading() {
+        ThermometerReadingSnapshot snapshot = new ThermometerReadingSnapshot(mThermometerReading);
+        mPublishedReading = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Broadcast published snapshot, caller must not hold manager lock as listeners on caller thread
+     * run in this call. Snapshot already replaced by a newer one is skipped, and if a newer one is
+     * published during broadcast it is broadcast again so sticky reading ends on the latest
+     *
+     * @param snapshot snapshot from {@link #publishReading()} or null for nothing to broadcast
+     */
+    private void broadcastReading(ThermometerReadingSnapshot snapshot) {
+        if (null == snapshot || snapshot != mPublishedReading) {
+            return;
+        }
+        while (true) {
+            EventManager.getInstance().broadcastEvent(CHANNELS.TEMPERATURE_READING_RECEIVED, snapshot);
+            ThermometerReadingSnapshot latest = mPublishedReading;
+            if (null == latest || latest == snapshot) {
+                return;
+            }
+            snapshot = latest;
+        }
+    }
+
+    /**
+     * Select protocol for device and build its dispatch table, bluetooth manager is created
+     * again if UUIDs of protocol are different from current UUIDs, running scan is stopped then
+     * as it belongs to the old manager
+     *
+     * @param deviceItem device which is going to connect
+     */
+    private void selectProtocol(DeviceItem deviceItem) {
+        DeviceProtocol protocol = mDefaultProtocol;
+        for (DeviceProtocol registered : mProtocols) {
+            if (registered.supports(deviceItem)) {
+                protocol = registered;
+                break;
+            }
+        }
+        if (protocol == mProtocol) {
+            return;
+        }
+        if (!protocol.getManagerConfig().equals(mProtocol.getManagerConfig())) {
+            if (mScanning) {
+                mBluetoothManager.scan(false);
+                mScanning = false;
+            }
+            mBluetoothManager.destroyService();
+            initBluetoothManager(protocol.getManagerConfig());
+        }
+        mProtocol = protocol;
+        mFrameHandlers = buildFrameHandlers(protocol);
+    }
+
+    private void initBluetoothManager(ManagerConfig managerConfig) {
+        mBluetoothManager = BluetoothManager.getInstance(mContext, managerConfig);
+        mBluetoothManager.setCallbackListener(mThermometerCallback);
+        mBluetoothManager.initService();
+    }
+
+    /**
+     * Build table of frame handlers of protocol indexed by opcode
+     *
+     * @param protocol DeviceProtocol
+     * @return frame handlers, null for ignored opcodes
+     */
+    private static DeviceProtocol.FrameHandler[] buildFrameHandlers(DeviceProtocol protocol) {
+        DeviceProtocol.FrameHandler[] handlers = new DeviceProtocol.FrameHandler[256];
+        for (int opcode = 0; opcode < handlers.length; opcode++) {
+            handlers[opcode] = protocol.getFrameHandler(opcode);
+        }
+        return handlers;
+    }
+
+    /**
+     * Copy command of protocol from position to limit of buffer, position of buffer is not changed
+     *
+     * @param command ByteBuffer
+     * @return new array of command
+     */
+    private static byte[] toArray(ByteBuffer command) {
+        byte[] array = new byte[command.remaining()];
+        command.duplicate().get(array);
+        return array;
+    }
+
+    /**
+     * Convert temperature of other unit into provided unit
+     *
+     * @param deciTemp temperature in tenth of degree
+     * @param toUnit   unit in which temperature need to convert
+     * @return converted temperature in tenth of degree
+     */
+    private static int convertDeciTemperature(int deciTemp, ThermometerUnit toUnit) {
+        return toUnit == ThermometerUnit.FAHRENHEIT
+                ? ThermUtils.getFahrenheitDeciTemperature(deciTemp) : ThermUtils.getCelsiusDeciTemperature(deciTemp);
     }
 
     /**
@@ -197,32 +407,124 @@ public class ThermometerManager {
      * close all the service and release all the resources
      */
     public void close() {
+        if (mScanning) {
+            mBluetoothManager.scan(false);
+            mScanning = false;
+        }
         mBluetoothManager.destroyService();
         mDeviceItems.clear();
-        mThermometerReading = null;
+        synchronized (this) {
+            mThermometerReading = null;
+            mPublishedReading = null;
+        }
+        EventManager.getInstance().removeStickyEvent(EventTypes.EVENT_ACTION_TEMPERATURE_READING_RECEIVED);
         sInstance = null;
     }
 
     /**
      * To get Thermometer reading
      *
-     * @return ThermometerReading
+     * @return new copy of latest ThermometerReading or null if no device is connected
+     * @see #getThermometerReadingSnapshot()
      */
     public ThermometerReading getThermometerReading() {
-        return mThermometerReading;
+        ThermometerReadingSnapshot snapshot = mPublishedReading;
+        return null == snapshot ? null : snapshot.toReading();
+    }
+
+    /**
+     * To get Thermometer reading without a copy
+     *
+     * @return immutable snapshot of latest ThermometerReading or null if no device is connected
+     */
+    public ThermometerReadingSnapshot getThermometerReadingSnapshot() {
+        return mPublishedReading;
     }
 
     /**
      * Callback implementation for listening callback from Bluetooth manager
      * Currently callback for device state change and on message received is listen
+     * <p/>
+     * Received messages are passed through {@link ThermFrameAssembler} so frames split in
+     * multiple notifications or packed in one notification are decoded once each, and every
+     * frame is dispatched on handler of its opcode from protocol of connected device
+     * <p/>
+     * Reading is stamped with receive time of the notification which completed its frame
+     * <p/>
+     * Callbacks are called on bluetooth callback thread, only broadcast of results goes to listeners
+     * on their delivery thread
      */
-    private class ThermometerCallback implements BLECharChangeListener {
+    private class ThermometerCallback implements BLEBufferedCharChangeListener, BLETimestampedCharChangeListener
+            , ThermFrameAssembler.FrameListener {
+        /**
+         * Maximum frame length expected from thermometer
+         */
+        private static final int FRAME_BUFFER_CAPACITY = 64;
+        private static final int OPCODE_INDEX = 1;
+        private final ThermFrameAssembler mFrameAssembler = new ThermFrameAssembler(FRAME_BUFFER_CAPACITY, this);
+        /**
+         * Receive time of message which is being assembled
+         */
+        private long mMessageTimestamp;
+        /**
+         * Last reading published from frames of message which is being assembled, it is broadcast
+         * after lock of manager is released
+         */
+        private ThermometerReadingSnapshot mMessageReading;
+
         @Override
         public void onMessageReceived(byte[] message) {
-            mThermometerReading = ThermUtils.getReadings(message, mThermometerReading);
-            EventManager.getInstance().broadcastEvent(EventTypes
-                    .EVENT_ACTION_TEMPERATURE_READING_RECEIVED
-                    , mThermometerReading);
+            onMessageReceived(message, 0);
+        }
+
+        @Override
+        public void onMessageReceived(byte[] message, long timestampNanos) {
+            if (null == message) {
+                return;
+            }
+            ThermometerReadingSnapshot published;
+            synchronized (ThermometerManager.this) {
+                mMessageTimestamp = timestampNanos;
+                mMessageReading = null;
+                mFrameAssembler.append(message, 0, message.length);
+                published = mMessageReading;
+            }
+            broadcastReading(published);
+        }
+
+        @Override
+        public void onMessageReceived(ReceiveBuffer buffer) {
+            ThermometerReadingSnapshot published;
+            try {
+                synchronized (ThermometerManager.this) {
+                    mMessageTimestamp = buffer.getTimestampNanos();
+                    mMessageReading = null;
+                    //assembler copies the bytes, so buffer can go back to pool right after
+                    mFrameAssembler.append(buffer.getData(), 0, buffer.getLength());
+                    published = mMessageReading;
+                }
+            } finally {
+                buffer.release();
+            }
+            broadcastReading(published);
+        }
+
+        @Override
+        public void onFrame(byte[] frame, int offset, int length) {
+            DeviceProtocol.FrameHandler handler = mFrameHandlers[frame[offset + OPCODE_INDEX] & 0xFF];
+            if (null == handler) {
+                return;
+            }
+            synchronized (ThermometerManager.this) {
+                if (null == mThermometerReading) {
+                    mThermometerReading = new ThermometerReading();
+                }
+                if (!handler.handleFrame(frame, offset, length, mThermometerReading)) {
+                    return;
+                }
+                mThermometerReading.setTimestampNanos(mMessageTimestamp);
+                mMessageReading = publishReading();
+            }
         }
 
         @Override
@@ -232,8 +534,7 @@ public class ThermometerManager {
             } else {
                 mDeviceItems.remove(deviceItem);
             }
-            EventManager.getInstance().broadcastEvent(EventTypes.EVENT_ACTION_DEVICE_STATE_CHANGED
-                    , deviceItem);
+            EventManager.getInstance().broadcastEvent(CHANNELS.DEVICE_STATE_CHANGED, deviceItem);
         }
     }
 }
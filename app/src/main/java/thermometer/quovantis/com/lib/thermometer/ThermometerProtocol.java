@@ -0,0 +1,75 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import com.quovantis.bluetoothlibs.DeviceItem;
+import com.quovantis.bluetoothlibs.ManagerConfig;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReading;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+import java.nio.ByteBuffer;
+
+import static thermometer.quovantis.com.lib.thermometer.ThermometerConstants.UUIDS.*;
+
+/**
+ * Protocol of the default thermometer, it supports devices which advertise its service and it is
+ * also used for every device which is not supported by any registered protocol, like a bonded
+ * device whose advertisement is not seen
+ *
+ * @see ThermCommandEncoder
+ * @see ThermFrameDecoder
+ */
+public class ThermometerProtocol implements DeviceProtocol {
+
+    /**
+     * Opcode of temperature reading frame
+     */
+    public static final int OPCODE_READING = 0x10;
+
+    private final ManagerConfig mManagerConfig = new ManagerConfig()
+            .setDeviceUUID(MY_UUID)
+            .setCharactristicUUID(CHARACTERISTIC_ID)
+            .setCharConfigUUID(CLIENT_CONFIG_ID)
+            .setWriteCharUUID(WRITE_CHARACTERISTIC_ID)
+            .setDedicatedCallbackThread(true);
+
+    @Override
+    public boolean supports(DeviceItem deviceItem) {
+        return deviceItem.getServiceUUIDs().contains(MY_UUID);
+    }
+
+    @Override
+    public ManagerConfig getManagerConfig() {
+        return mManagerConfig;
+    }
+
+    @Override
+    public ByteBuffer getReadCommand() {
+        return ThermCommandEncoder.getReadCommand();
+    }
+
+    @Override
+    public ByteBuffer getSettingsCommand(ThermometerUnit unit, ThermometerMode mode) {
+        return ThermCommandEncoder.getSettingsCommand(unit, mode);
+    }
+
+    @Override
+    public FrameHandler getFrameHandler(int opcode) {
+        return opcode == OPCODE_READING ? new ReadingFrameHandler() : null;
+    }
+
+    /**
+     * Handler of temperature reading frame
+     */
+    private static class ReadingFrameHandler implements FrameHandler {
+        private final ThermFrameDecoder mFrameDecoder = new ThermFrameDecoder();
+
+        @Override
+        public boolean handleFrame(byte[] frame, int offset, int length, ThermometerReading reading) {
+            if (!mFrameDecoder.decode(frame, offset, length)) {
+                return false;
+            }
+            mFrameDecoder.applyTo(reading);
+            return true;
+        }
+    }
+}
@@ -4,10 +4,18 @@ package thermometer.quovantis.com.lib.thermometer.models;
  * Model represent the thermometer reading
  * It use enum value for Thermometer unit in {@link ThermometerUnit} and
  * {@link ThermometerMode} for Thermometer mode
+ * <p/>
+ * Temperature is also kept as integer tenth of degree, see {@link #getDeciTemperature()},
+ * which can be converted between units exactly without float rounding
+ * <p/>
+ * Thermometer sends both body and surface temperatures in every frame, temperature of
+ * {@link #getThermometerMode()} is the active one returned by {@link #getTemperature()} and both
+ * are available in {@link #getBodyDeciTemperature()} and {@link #getSurfaceDeciTemperature()}
  *
  * @see ThermometerMode#getEnumForValue(byte) and
  * @see ThermometerUnit#getEnumForValue(byte)
  * the above method are use to get enum for their corresponding value
+ * @see ThermometerReadingSnapshot for immutable copy of a reading
  */
 public class ThermometerReading {
     /**
@@ -15,6 +23,27 @@ public class ThermometerReading {
      */
     private float mTemperature;
 
+    /**
+     * Temperature of thermometer in tenth of degree of {@link #mThermometerUnit}
+     */
+    private int mDeciTemperature;
+
+    /**
+     * Body temperature in tenth of degree of {@link #mThermometerUnit}
+     */
+    private int mBodyDeciTemperature;
+
+    /**
+     * Surface temperature in tenth of degree of {@link #mThermometerUnit}
+     */
+    private int mSurfaceDeciTemperature;
+
+    /**
+     * android.os.SystemClock#elapsedRealtimeNanos() when frame of reading was received from
+     * bluetooth stack, 0 if it is not known
+     */
+    private long mTimestampNanos;
+
     /**
      * Mapped Thermometer Unit it can be either Celsius or Fahrenheit
      */
@@ -40,7 +69,7 @@ public class ThermometerReading {
      */
     public ThermometerReading(float temperature, ThermometerUnit thermometerUnit
             , ThermometerMode thermometerMode) {
-        mTemperature = temperature;
+        setTemperature(temperature);
         mThermometerUnit = thermometerUnit;
         mThermometerMode = thermometerMode;
     }
@@ -51,6 +80,58 @@ public class ThermometerReading {
 
     public void setTemperature(float temperature) {
         mTemperature = temperature;
+        mDeciTemperature = Math.round(temperature * 10f);
+    }
+
+    /**
+     * @return temperature in tenth of degree, for example 375 for 37.5
+     */
+    public int getDeciTemperature() {
+        return mDeciTemperature;
+    }
+
+    /**
+     * Set temperature in tenth of degree, {@link #getTemperature()} is also updated
+     *
+     * @param deciTemperature temperature in tenth of degree, for example 375 for 37.5
+     */
+    public void setDeciTemperature(int deciTemperature) {
+        mDeciTemperature = deciTemperature;
+        mTemperature = deciTemperature / 10f;
+    }
+
+    /**
+     * @return body temperature in tenth of degree
+     */
+    public int getBodyDeciTemperature() {
+        return mBodyDeciTemperature;
+    }
+
+    public void setBodyDeciTemperature(int bodyDeciTemperature) {
+        mBodyDeciTemperature = bodyDeciTemperature;
+    }
+
+    /**
+     * @return surface temperature in tenth of degree
+     */
+    public int getSurfaceDeciTemperature() {
+        return mSurfaceDeciTemperature;
+    }
+
+    public void setSurfaceDeciTemperature(int surfaceDeciTemperature) {
+        mSurfaceDeciTemperature = surfaceDeciTemperature;
+    }
+
+    /**
+     * @return android.os.SystemClock#elapsedRealtimeNanos() when frame of reading was received from
+     * bluetooth stack or 0 if it is not known, use it for latency and time series of readings
+     */
+    public long getTimestampNanos() {
+        return mTimestampNanos;
+    }
+
+    public void setTimestampNanos(long timestampNanos) {
+        mTimestampNanos = timestampNanos;
     }
 
     public ThermometerUnit getThermometerUnit() {
@@ -0,0 +1,89 @@
+package thermometer.quovantis.com.lib.thermometer.models;
+
+/**
+ * Immutable copy of a {@link ThermometerReading} at the time it was published, it is safe to keep
+ * and to read from any thread
+ * <p/>
+ * A new snapshot is created for every published reading, use {@link #toReading()} to get a
+ * modifiable copy
+ */
+public final class ThermometerReadingSnapshot {
+    private final float mTemperature;
+    private final int mDeciTemperature;
+    private final int mBodyDeciTemperature;
+    private final int mSurfaceDeciTemperature;
+    private final long mTimestampNanos;
+    private final ThermometerUnit mThermometerUnit;
+    private final ThermometerMode mThermometerMode;
+
+    /**
+     * Create snapshot of current values of reading
+     *
+     * @param reading ThermometerReading
+     */
+    public ThermometerReadingSnapshot(ThermometerReading reading) {
+        if (reading == null) {
+            throw new IllegalArgumentException("ThermometerReading can't be null for snapshot");
+        }
+        mTemperature = reading.getTemperature();
+        mDeciTemperature = reading.getDeciTemperature();
+        mBodyDeciTemperature = reading.getBodyDeciTemperature();
+        mSurfaceDeciTemperature = reading.getSurfaceDeciTemperature();
+        mTimestampNanos = reading.getTimestampNanos();
+        mThermometerUnit = reading.getThermometerUnit();
+        mThermometerMode = reading.getThermometerMode();
+    }
+
+    public float getTemperature() {
+        return mTemperature;
+    }
+
+    /**
+     * @return temperature in tenth of degree, for example 375 for 37.5
+     */
+    public int getDeciTemperature() {
+        return mDeciTemperature;
+    }
+
+    /**
+     * @return body temperature in tenth of degree
+     */
+    public int getBodyDeciTemperature() {
+        return mBodyDeciTemperature;
+    }
+
+    /**
+     * @return surface temperature in tenth of degree
+     */
+    public int getSurfaceDeciTemperature() {
+        return mSurfaceDeciTemperature;
+    }
+
+    /**
+     * @return android.os.SystemClock#elapsedRealtimeNanos() when frame of reading was received from
+     * bluetooth stack or 0 if it is not known
+     */
+    public long getTimestampNanos() {
+        return mTimestampNanos;
+    }
+
+    public ThermometerUnit getThermometerUnit() {
+        return mThermometerUnit;
+    }
+
+    public ThermometerMode getThermometerMode() {
+        return mThermometerMode;
+    }
+
+    /**
+     * @return new modifiable reading with values of this snapshot
+     */
+    public ThermometerReading toReading() {
+        ThermometerReading reading = new ThermometerReading(mTemperature, mThermometerUnit, mThermometerMode);
+        reading.setDeciTemperature(mDeciTemperature);
+        reading.setBodyDeciTemperature(mBodyDeciTemperature);
+        reading.setSurfaceDeciTemperature(mSurfaceDeciTemperature);
+        reading.setTimestampNanos(mTimestampNanos);
+        return reading;
+    }
+}
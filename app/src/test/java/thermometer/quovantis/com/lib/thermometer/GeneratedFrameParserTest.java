@@ -0,0 +1,121 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import thermometer.quovantis.com.lib.thermometer.frames.ThermReadCommand;
+import thermometer.quovantis.com.lib.thermometer.frames.ThermReadingFrame;
+import thermometer.quovantis.com.lib.thermometer.frames.ThermSettingsCommand;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReading;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+/**
+ * Parsers generated from src/main/frames against the frame fixtures of {@link ThermUtilsTest} and against {@link ThermUtils}
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class GeneratedFrameParserTest extends TestCase {
+
+    private static final byte[] SAMPLE_FRAME = {(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01
+            , 0x01, 0x01, 0x56, (byte) 0xFF};
+    /**
+     * Hand written frames of {@link ThermUtilsTest} for every mode and unit, surface 0x0123 and body
+     * 0x0128 tenth of degree, check byte is 0x56 in all of them
+     */
+    private static final byte[][] FIXTURE_FRAMES = {
+            {(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01, 0x00, 0x00, 0x56, (byte) 0xFF},
+            {(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01, 0x00, 0x01, 0x56, (byte) 0xFF},
+            {(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01, 0x01, 0x00, 0x56, (byte) 0xFF},
+            {(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01, 0x01, 0x01, 0x56, (byte) 0xFF}};
+    private static final int[] TEMPERATURES = {0, 1, 255, 256, 0x0123, 0x0128, 375, 995, 4000, 0xFFFF};
+
+    @Test
+    public void testSampleFrame() throws Exception {
+        Assert.assertTrue(ThermReadingFrame.isValid(SAMPLE_FRAME, 0, SAMPLE_FRAME.length));
+        Assert.assertEquals(0x0123, ThermReadingFrame.getSurfaceTemperature(SAMPLE_FRAME, 0));
+        Assert.assertEquals(0x0128, ThermReadingFrame.getBodyTemperature(SAMPLE_FRAME, 0));
+
+        //check byte is not verified
+        byte[] otherCheck = SAMPLE_FRAME.clone();
+        otherCheck[ThermReadingFrame.CHECK_INDEX]++;
+        Assert.assertTrue(ThermReadingFrame.isValid(otherCheck, 0, otherCheck.length));
+
+        byte[] corrupted = SAMPLE_FRAME.clone();
+        corrupted[ThermReadingFrame.END_INDEX] = 0;
+        Assert.assertFalse(ThermReadingFrame.isValid(corrupted, 0, corrupted.length));
+    }
+
+    @Test
+    public void testFixtureFrames() throws Exception {
+        for (byte[] fixture : FIXTURE_FRAMES) {
+            Assert.assertTrue(ThermReadingFrame.isValid(fixture, 0, fixture.length));
+            Assert.assertEquals(0x0123, ThermReadingFrame.getSurfaceTemperature(fixture, 0));
+            Assert.assertEquals(0x0128, ThermReadingFrame.getBodyTemperature(fixture, 0));
+            Assert.assertEquals(fixture[9], ThermReadingFrame.getMode(fixture, 0));
+            Assert.assertEquals(fixture[10], ThermReadingFrame.getUnit(fixture, 0));
+            Assert.assertEquals(0x56, ThermReadingFrame.getCheck(fixture, 0));
+            Assert.assertTrue(ThermFrameAssembler.isValidFrame(fixture, 0, fixture.length));
+
+            byte[] encoded = new byte[ThermReadingFrame.LENGTH];
+            ThermReadingFrame.encode(encoded, 0, 0x0123, 0x0128, fixture[9], fixture[10], 0x56);
+            //bytes which are not described in layout are not part of encoded frame
+            encoded[7] = fixture[7];
+            encoded[8] = fixture[8];
+            Assert.assertArrayEquals(fixture, encoded);
+        }
+    }
+
+    @Test
+    public void testReadingFrameMatchesThermUtils() throws Exception {
+        byte[] frame = new byte[ThermReadingFrame.LENGTH + 3];
+        for (ThermometerMode mode : ThermometerMode.values()) {
+            for (ThermometerUnit unit : ThermometerUnit.values()) {
+                for (int temperature : TEMPERATURES) {
+                    ThermReadingFrame.encode(frame, 3, temperature, 0xFFFF - temperature
+                            , mode.getValue(), unit.getValue(), 0x56);
+                    Assert.assertTrue(ThermReadingFrame.isValid(frame, 3, ThermReadingFrame.LENGTH));
+
+                    byte[] exact = new byte[ThermReadingFrame.LENGTH];
+                    System.arraycopy(frame, 3, exact, 0, exact.length);
+                    ThermometerReading expected = ThermUtils.getReadings(exact, null);
+                    Assert.assertEquals(expected.getThermometerMode().getValue(), ThermReadingFrame.getMode(frame, 3));
+                    Assert.assertEquals(expected.getThermometerUnit().getValue(), ThermReadingFrame.getUnit(frame, 3));
+                    if (unit == ThermometerUnit.CELSIUS) {
+                        Assert.assertEquals(expected.getSurfaceDeciTemperature(), ThermReadingFrame.getSurfaceTemperature(frame, 3));
+                        Assert.assertEquals(expected.getBodyDeciTemperature(), ThermReadingFrame.getBodyTemperature(frame, 3));
+                        Assert.assertEquals(expected.getTemperature(), mode == ThermometerMode.SURFACE
+                                ? ThermReadingFrame.getSurfaceTemperatureScaled(frame, 3)
+                                : ThermReadingFrame.getBodyTemperatureScaled(frame, 3), 0f);
+                    } else {
+                        Assert.assertEquals(expected.getSurfaceDeciTemperature()
+                                , ThermUtils.getFahrenheitDeciTemperature(ThermReadingFrame.getSurfaceTemperature(frame, 3)));
+                        Assert.assertEquals(expected.getBodyDeciTemperature()
+                                , ThermUtils.getFahrenheitDeciTemperature(ThermReadingFrame.getBodyTemperature(frame, 3)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCommandsMatchThermUtils() throws Exception {
+        byte[] command = new byte[ThermSettingsCommand.LENGTH];
+        for (ThermometerMode mode : ThermometerMode.values()) {
+            for (ThermometerUnit unit : ThermometerUnit.values()) {
+                ThermSettingsCommand.encode(command, 0, mode.getValue(), unit.getValue());
+                Assert.assertArrayEquals(ThermUtils.getSettings(unit, mode), command);
+                Assert.assertTrue(ThermSettingsCommand.isValid(command, 0, command.length));
+            }
+        }
+
+        command = new byte[ThermReadCommand.LENGTH];
+        ThermReadCommand.encode(command, 0);
+        byte[] expected = new byte[ThermCommandEncoder.READ_COMMAND_LENGTH];
+        ThermCommandEncoder.writeReadCommand(expected, 0);
+        Assert.assertArrayEquals(expected, command);
+    }
+}
@@ -0,0 +1,143 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class ThermBatchDecoderTest extends TestCase {
+
+    private static final byte[] FRAME = {(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01
+            , 0x01, 0x01, 0x56, (byte) 0xFF};
+    private static final int RECORD_LENGTH = ThermBatchDecoder.TIMESTAMP_LENGTH + FRAME.length;
+
+    /**
+     * Capture of records with timestamp equal to index, every tenth frame has wrong end byte
+     * and every fifth frame after that has other check byte
+     */
+    private static byte[] capture(int records, int extraBytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(records * RECORD_LENGTH + extraBytes);
+        for (int i = 0; i < records; i++) {
+            buffer.putLong(i);
+            buffer.put(FRAME);
+            if (i % 10 == 0) {
+                buffer.put(buffer.position() - 1, (byte) 0x00);
+            } else if (i % 5 == 0) {
+                buffer.put(buffer.position() - 2, (byte) 0x00);
+            }
+        }
+        return buffer.array();
+    }
+
+    @Test
+    public void testDecodeColumns() throws Exception {
+        byte[] capture = capture(20, 3);
+        ThermReadingColumns columns = ThermBatchDecoder.decode(capture, 0, capture.length);
+        Assert.assertEquals("Incomplete record at end should be ignored", 20, columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            Assert.assertEquals(i, columns.getTimestamps()[i]);
+            Assert.assertEquals(i % 10 != 0, columns.getValidFlags()[i]);
+            Assert.assertEquals(i % 10 == 5, columns.getCheckMismatchFlags()[i]);
+            if (columns.getValidFlags()[i]) {
+                Assert.assertEquals(0x0123, columns.getRawTemperatures()[i]);
+                Assert.assertEquals(ThermometerMode.SURFACE, columns.getThermometerMode(i));
+                Assert.assertEquals(ThermometerUnit.FAHRENHEIT, columns.getThermometerUnit(i));
+            } else {
+                Assert.assertEquals(0, columns.getRawTemperatures()[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testResyncAfterCorruptedLength() throws Exception {
+        byte[] capture = new byte[10 * RECORD_LENGTH];
+        ByteBuffer buffer = ByteBuffer.wrap(capture);
+        for (int i = 0; i < 10; i++) {
+            buffer.putLong(i);
+            buffer.put(FRAME);
+        }
+        //length byte of fifth record points in the middle of later records
+        capture[4 * RECORD_LENGTH + ThermBatchDecoder.TIMESTAMP_LENGTH + ThermFrameAssembler.LENGTH_INDEX] = 0x30;
+
+        ThermReadingColumns columns = ThermBatchDecoder.decode(capture, 0, capture.length);
+
+        Assert.assertEquals(9, columns.size());
+        long[] expected = {0, 1, 2, 3, 5, 6, 7, 8, 9};
+        Assert.assertArrayEquals(expected, columns.getTimestamps());
+        for (int i = 0; i < columns.size(); i++) {
+            Assert.assertTrue(columns.getValidFlags()[i]);
+            Assert.assertEquals(0x0123, columns.getRawTemperatures()[i]);
+        }
+    }
+
+    @Test
+    public void testResyncAfterGarbage() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(3 * RECORD_LENGTH + 5);
+        buffer.putLong(0);
+        buffer.put(FRAME);
+        //bytes lost from stream, including a stray start byte
+        buffer.put(new byte[]{0x01, (byte) 0xFA, 0x02, 0x03, 0x04});
+        buffer.putLong(1);
+        buffer.put(FRAME);
+        buffer.putLong(2);
+        buffer.put(FRAME);
+
+        ThermReadingColumns columns = ThermBatchDecoder.decode(buffer.array(), 0, buffer.capacity());
+
+        Assert.assertArrayEquals(new long[]{0, 1, 2}, columns.getTimestamps());
+    }
+
+    @Test
+    public void testFixtureFramesOfEveryModeAndUnit() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * RECORD_LENGTH);
+        for (ThermometerMode mode : ThermometerMode.values()) {
+            for (ThermometerUnit unit : ThermometerUnit.values()) {
+                //hand written frames of ThermUtilsTest have check byte 0x56 for every mode and unit
+                buffer.putLong(buffer.position());
+                buffer.put(new byte[]{(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01
+                        , mode.getValue(), unit.getValue(), 0x56, (byte) 0xFF});
+            }
+        }
+        ThermReadingColumns columns = ThermBatchDecoder.decode(buffer.array(), 0, buffer.capacity());
+        Assert.assertEquals(4, columns.size());
+        int index = 0;
+        for (ThermometerMode mode : ThermometerMode.values()) {
+            for (ThermometerUnit unit : ThermometerUnit.values()) {
+                Assert.assertTrue(columns.getValidFlags()[index]);
+                Assert.assertEquals(mode, columns.getThermometerMode(index));
+                Assert.assertEquals(unit, columns.getThermometerUnit(index));
+                index++;
+            }
+        }
+    }
+
+    @Test
+    public void testParallelDecodeSameAsSequential() throws Exception {
+        byte[] capture = capture(ThermBatchDecoder.MIN_RECORDS_PER_TASK * 3 + 7, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ThermReadingColumns parallel = ThermBatchDecoder.decode(capture, 0, capture.length, executor, 3);
+            ThermReadingColumns sequential = ThermBatchDecoder.decode(capture, 0, capture.length);
+            Assert.assertEquals(sequential.size(), parallel.size());
+            Assert.assertArrayEquals(sequential.getTimestamps(), parallel.getTimestamps());
+            Assert.assertArrayEquals(sequential.getRawTemperatures(), parallel.getRawTemperatures());
+            Assert.assertArrayEquals(sequential.getModes(), parallel.getModes());
+            Assert.assertArrayEquals(sequential.getUnits(), parallel.getUnits());
+            Assert.assertTrue(Arrays.equals(sequential.getValidFlags(), parallel.getValidFlags()));
+            Assert.assertTrue(Arrays.equals(sequential.getCheckMismatchFlags(), parallel.getCheckMismatchFlags()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class ThermCommandEncoderTest extends TestCase {
+
+    @Test
+    public void testSettingsCommandMatchesGetSettings() throws Exception {
+        byte[] buffer = new byte[ThermCommandEncoder.SETTINGS_COMMAND_LENGTH + 2];
+        for (ThermometerUnit unit : ThermometerUnit.values()) {
+            for (ThermometerMode mode : ThermometerMode.values()) {
+                byte[] expected = ThermUtils.getSettings(unit, mode);
+
+                ByteBuffer command = ThermCommandEncoder.getSettingsCommand(unit, mode);
+                Assert.assertTrue(command.isReadOnly());
+                byte[] actual = new byte[command.remaining()];
+                command.get(actual);
+                Assert.assertArrayEquals("Settings command not correct for " + mode + " " + unit, expected, actual);
+
+                Assert.assertEquals(expected.length, ThermCommandEncoder.writeSettingsCommand(unit, mode, buffer, 2));
+                Assert.assertArrayEquals(expected, Arrays.copyOfRange(buffer, 2, buffer.length));
+            }
+        }
+    }
+
+    @Test
+    public void testReadCommandIsNotShared() throws Exception {
+        byte[] expected = new byte[]{(byte) 0xF5, 0x10, 0x00, 0x00, (byte) 0xFF};
+        ByteBuffer command = ThermCommandEncoder.getReadCommand();
+        command.position(command.limit());
+        //position of one buffer should not affect other callers
+        Assert.assertEquals(ThermCommandEncoder.READ_COMMAND_LENGTH, ThermCommandEncoder.getReadCommand().remaining());
+
+        byte[] buffer = new byte[ThermCommandEncoder.READ_COMMAND_LENGTH];
+        ThermCommandEncoder.writeReadCommand(buffer, 0);
+        Assert.assertArrayEquals(expected, buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteInSmallBuffer() throws Exception {
+        ThermCommandEncoder.writeReadCommand(new byte[ThermCommandEncoder.READ_COMMAND_LENGTH], 1);
+    }
+}
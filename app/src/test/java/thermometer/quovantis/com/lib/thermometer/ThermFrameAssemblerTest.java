@@ -0,0 +1,112 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class ThermFrameAssemblerTest extends TestCase {
+
+    /**
+     * Surface mode fahrenheit frame, its check byte is also low byte of sum of payload
+     */
+    private static final byte[] FRAME = {(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01
+            , 0x01, 0x01, 0x56, (byte) 0xFF};
+
+    private static class FrameCollector implements ThermFrameAssembler.FrameListener {
+        private final List<byte[]> mFrames = new ArrayList<byte[]>();
+
+        @Override
+        public void onFrame(byte[] frame, int offset, int length) {
+            mFrames.add(Arrays.copyOfRange(frame, offset, offset + length));
+        }
+    }
+
+    @Test
+    public void testSplitFrame() throws Exception {
+        FrameCollector collector = new FrameCollector();
+        ThermFrameAssembler assembler = new ThermFrameAssembler(16, collector);
+        for (int i = 0; i < 3; i++) {
+            //split at different points and let the ring buffer wrap
+            assembler.append(FRAME, 0, 2 + i);
+            Assert.assertEquals(i, collector.mFrames.size());
+            assembler.append(FRAME, 2 + i, FRAME.length - 2 - i);
+            Assert.assertEquals(i + 1, collector.mFrames.size());
+            Assert.assertArrayEquals(FRAME, collector.mFrames.get(i));
+        }
+    }
+
+    @Test
+    public void testPackedFramesWithNoise() throws Exception {
+        FrameCollector collector = new FrameCollector();
+        ThermFrameAssembler assembler = new ThermFrameAssembler(32, collector);
+        byte[] message = new byte[FRAME.length * 2 + 3];
+        message[0] = 0x01;
+        message[1] = 0x02;
+        System.arraycopy(FRAME, 0, message, 2, FRAME.length);
+        message[FRAME.length + 2] = 0x03;
+        System.arraycopy(FRAME, 0, message, FRAME.length + 3, FRAME.length);
+
+        assembler.append(message, 0, message.length);
+        Assert.assertEquals(2, collector.mFrames.size());
+        Assert.assertArrayEquals(FRAME, collector.mFrames.get(0));
+        Assert.assertArrayEquals(FRAME, collector.mFrames.get(1));
+        Assert.assertEquals(3, assembler.getSkippedBytes());
+    }
+
+    @Test
+    public void testInvalidFrameIsDropped() throws Exception {
+        FrameCollector collector = new FrameCollector();
+        ThermFrameAssembler assembler = new ThermFrameAssembler(32, collector);
+        byte[] badEnd = FRAME.clone();
+        badEnd[12] = 0x00;
+
+        assembler.append(badEnd, 0, badEnd.length);
+        assembler.append(FRAME, 0, FRAME.length);
+        Assert.assertEquals(1, collector.mFrames.size());
+        Assert.assertArrayEquals(FRAME, collector.mFrames.get(0));
+        Assert.assertEquals(1, assembler.getInvalidFrames());
+    }
+
+    @Test
+    public void testCheckByteMismatchIsCountedNotDropped() throws Exception {
+        FrameCollector collector = new FrameCollector();
+        ThermFrameAssembler assembler = new ThermFrameAssembler(32, collector);
+        byte[] otherCheck = FRAME.clone();
+        otherCheck[11] = 0x57;
+
+        assembler.append(otherCheck, 0, otherCheck.length);
+        assembler.append(FRAME, 0, FRAME.length);
+        Assert.assertEquals(2, collector.mFrames.size());
+        Assert.assertArrayEquals(otherCheck, collector.mFrames.get(0));
+        Assert.assertEquals(0, assembler.getInvalidFrames());
+        Assert.assertEquals(1, assembler.getCheckMismatches());
+    }
+
+    @Test
+    public void testFixtureFramesOfEveryModeAndUnit() throws Exception {
+        FrameCollector collector = new FrameCollector();
+        ThermFrameAssembler assembler = new ThermFrameAssembler(32, collector);
+        for (ThermometerMode mode : ThermometerMode.values()) {
+            for (ThermometerUnit unit : ThermometerUnit.values()) {
+                //hand written frames of ThermUtilsTest have check byte 0x56 for every mode and unit
+                byte[] frame = {(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01
+                        , mode.getValue(), unit.getValue(), 0x56, (byte) 0xFF};
+                assembler.append(frame, 0, frame.length);
+                Assert.assertArrayEquals(frame, collector.mFrames.get(collector.mFrames.size() - 1));
+            }
+        }
+        Assert.assertEquals(4, collector.mFrames.size());
+        Assert.assertEquals(0, assembler.getInvalidFrames());
+    }
+}
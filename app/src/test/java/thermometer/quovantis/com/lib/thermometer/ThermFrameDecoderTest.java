@@ -0,0 +1,84 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReading;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+import java.nio.ByteBuffer;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class ThermFrameDecoderTest extends TestCase {
+
+    private static byte[] frame(ThermometerMode mode, ThermometerUnit unit) {
+        return new byte[]{(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01
+                , mode.getValue(), unit.getValue(), 0x56, (byte) 0xFF};
+    }
+
+    @Test
+    public void testDecodeMatchesGetReadings() throws Exception {
+        ThermFrameDecoder decoder = new ThermFrameDecoder();
+        for (ThermometerMode mode : ThermometerMode.values()) {
+            for (ThermometerUnit unit : ThermometerUnit.values()) {
+                byte[] frame = frame(mode, unit);
+                ThermometerReading expected = ThermUtils.getReadings(frame, null);
+
+                Assert.assertTrue("Frame not decoded for " + mode + " " + unit, decoder.decode(frame, 0, frame.length));
+                Assert.assertEquals(expected.getThermometerMode(), decoder.getThermometerMode());
+                Assert.assertEquals(expected.getThermometerUnit(), decoder.getThermometerUnit());
+                Assert.assertEquals(expected.getTemperature(), decoder.getTemperature(), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeWithOffsetAndByteBuffer() throws Exception {
+        byte[] frame = frame(ThermometerMode.SURFACE, ThermometerUnit.CELSIUS);
+        byte[] buffer = new byte[frame.length + 5];
+        System.arraycopy(frame, 0, buffer, 5, frame.length);
+
+        ThermFrameDecoder decoder = new ThermFrameDecoder();
+        Assert.assertTrue(decoder.decode(buffer, 5, frame.length));
+        Assert.assertEquals("Surface temperature should be read from bytes 3-4", 0x0123, decoder.getRawTemperature());
+
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        byteBuffer.position(5);
+        Assert.assertTrue(decoder.decode(byteBuffer));
+        Assert.assertEquals(0x0123, decoder.getRawTemperature());
+        Assert.assertEquals("Decoder should not move buffer position", 5, byteBuffer.position());
+    }
+
+    @Test
+    public void testDecodeBothChannels() throws Exception {
+        ThermFrameDecoder decoder = new ThermFrameDecoder();
+        byte[] frame = frame(ThermometerMode.BODY, ThermometerUnit.FAHRENHEIT);
+        Assert.assertTrue(decoder.decode(frame, 0, frame.length));
+        Assert.assertEquals(0x0123, decoder.getRawSurfaceTemperature());
+        Assert.assertEquals(0x0128, decoder.getRawBodyTemperature());
+        Assert.assertEquals(decoder.getRawBodyTemperature(), decoder.getRawTemperature());
+
+        ThermometerReading reading = decoder.applyTo(new ThermometerReading());
+        Assert.assertEquals(ThermometerMode.BODY, reading.getThermometerMode());
+        Assert.assertEquals(ThermUtils.getFahrenheitDeciTemperature(0x0123), reading.getSurfaceDeciTemperature());
+        Assert.assertEquals(ThermUtils.getFahrenheitDeciTemperature(0x0128), reading.getBodyDeciTemperature());
+        Assert.assertEquals(reading.getBodyDeciTemperature(), reading.getDeciTemperature());
+
+        ThermometerReading expected = ThermUtils.getReadings(frame, null);
+        Assert.assertEquals(expected.getSurfaceDeciTemperature(), reading.getSurfaceDeciTemperature());
+        Assert.assertEquals(expected.getBodyDeciTemperature(), reading.getBodyDeciTemperature());
+    }
+
+    @Test
+    public void testDecodeShortFrame() throws Exception {
+        ThermFrameDecoder decoder = new ThermFrameDecoder();
+        Assert.assertFalse(decoder.decode(new byte[]{(byte) 0xFA, 0x10}, 0, 2));
+        Assert.assertFalse(decoder.isValid());
+        Assert.assertFalse(decoder.decode(null, 0, 0));
+    }
+}
@@ -2,6 +2,7 @@ package thermometer.quovantis.com.lib.thermometer;
 
 import junit.framework.TestCase;
 import org.junit.Assert;
+import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.annotation.Config;
@@ -77,4 +78,26 @@ public class ThermUtilsTest extends TestCase {
         Assert.assertNotEquals("Converted temperature from Fahrenheit to Celsius is not Correct"
                 , 37.5f, temp);
     }
+
+    @Test
+    public void testConvertDeciTemp() throws Exception {
+        Assert.assertEquals(995, ThermUtils.getFahrenheitDeciTemperature(375));
+        Assert.assertEquals(375, ThermUtils.getCelsiusDeciTemperature(995));
+        Assert.assertEquals("Below freezing temperature should be converted", 140, ThermUtils.getFahrenheitDeciTemperature(-100));
+        Assert.assertEquals(-400, ThermUtils.getCelsiusDeciTemperature(-400));
+        Assert.assertEquals(-178, ThermUtils.getCelsiusDeciTemperature(0));
+
+        for (int temp = 1; temp < 2000; temp++) {
+            Assert.assertEquals("Conversion not same as float conversion for " + temp
+                    , ThermUtils.getFahrenheitTemperature(temp / 10f), ThermUtils.getFahrenheitDeciTemperature(temp) / 10f, 0f);
+        }
+        for (int temp = 321; temp < 4000; temp++) {
+            Assert.assertEquals("Conversion not same as float conversion for " + temp
+                    , ThermUtils.getCelsiusTemperature(temp / 10f), ThermUtils.getCelsiusDeciTemperature(temp) / 10f, 0f);
+        }
+
+        int[] temps = new int[]{-400, 0, 375};
+        ThermUtils.convertDeciTemperatures(temps, 1, 2, ThermometerUnit.FAHRENHEIT);
+        Assert.assertArrayEquals(new int[]{-400, 320, 995}, temps);
+    }
 }
\ No newline at end of file
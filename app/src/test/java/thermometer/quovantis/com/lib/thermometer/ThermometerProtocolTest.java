@@ -0,0 +1,61 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import com.quovantis.bluetoothlibs.DeviceItem;
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReading;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class ThermometerProtocolTest extends TestCase {
+
+    private static final byte[] FRAME = {(byte) 0xFA, 0x10, 0x08, 0x23, 0x01, 0x28, 0x01, 0x06, 0x01
+            , 0x01, 0x01, 0x56, (byte) 0xFF};
+
+    @Test
+    public void testFrameHandlers() throws Exception {
+        ThermometerProtocol protocol = new ThermometerProtocol();
+        DeviceItem deviceItem = new DeviceItem();
+        Assert.assertFalse(protocol.supports(deviceItem));
+        deviceItem.setServiceUUIDs(Collections.singletonList(ThermometerConstants.UUIDS.MY_UUID));
+        Assert.assertTrue(protocol.supports(deviceItem));
+        for (int opcode = 0; opcode < 256; opcode++) {
+            if (opcode != ThermometerProtocol.OPCODE_READING) {
+                Assert.assertNull("Opcode " + opcode + " should be ignored", protocol.getFrameHandler(opcode));
+            }
+        }
+
+        DeviceProtocol.FrameHandler handler = protocol.getFrameHandler(ThermometerProtocol.OPCODE_READING);
+        ThermometerReading reading = new ThermometerReading();
+        Assert.assertTrue(handler.handleFrame(FRAME, 0, FRAME.length, reading));
+        ThermometerReading expected = ThermUtils.getReadings(FRAME, null);
+        Assert.assertEquals(expected.getDeciTemperature(), reading.getDeciTemperature());
+        Assert.assertEquals(expected.getThermometerMode(), reading.getThermometerMode());
+        Assert.assertFalse(handler.handleFrame(FRAME, 0, 5, reading));
+    }
+
+    @Test
+    public void testCommands() throws Exception {
+        ThermometerProtocol protocol = new ThermometerProtocol();
+        ByteBuffer settings = protocol.getSettingsCommand(ThermometerUnit.CELSIUS, ThermometerMode.SURFACE);
+        Assert.assertTrue(settings.isReadOnly());
+        Assert.assertEquals(ByteBuffer.wrap(ThermUtils.getSettings(ThermometerUnit.CELSIUS, ThermometerMode.SURFACE))
+                , settings);
+        byte[] expected = new byte[ThermCommandEncoder.READ_COMMAND_LENGTH];
+        ThermCommandEncoder.writeReadCommand(expected, 0);
+        ByteBuffer read = protocol.getReadCommand();
+        Assert.assertTrue(read.isReadOnly());
+        Assert.assertEquals(ByteBuffer.wrap(expected), read);
+        Assert.assertEquals(ThermometerConstants.UUIDS.MY_UUID, protocol.getManagerConfig().getDeviceUUID());
+        Assert.assertTrue(protocol.getManagerConfig().isDedicatedCallbackThread());
+    }
+}
@@ -0,0 +1,68 @@
+package thermometer.quovantis.com.lib.thermometer;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerMode;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReading;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerReadingSnapshot;
+import thermometer.quovantis.com.lib.thermometer.models.ThermometerUnit;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class ThermometerReadingSnapshotTest extends TestCase {
+
+    @Test
+    public void testSnapshotIsNotChangedByReading() throws Exception {
+        ThermometerReading reading = new ThermometerReading(37.5f, ThermometerUnit.CELSIUS, ThermometerMode.BODY);
+        reading.setBodyDeciTemperature(375);
+        reading.setSurfaceDeciTemperature(301);
+        reading.setTimestampNanos(10);
+
+        ThermometerReadingSnapshot snapshot = new ThermometerReadingSnapshot(reading);
+        reading.setThermometerUnit(ThermometerUnit.FAHRENHEIT);
+        reading.setThermometerMode(ThermometerMode.SURFACE);
+        reading.setDeciTemperature(995);
+        reading.setTimestampNanos(20);
+
+        Assert.assertEquals(ThermometerUnit.CELSIUS, snapshot.getThermometerUnit());
+        Assert.assertEquals(ThermometerMode.BODY, snapshot.getThermometerMode());
+        Assert.assertEquals(375, snapshot.getDeciTemperature());
+        Assert.assertEquals(37.5f, snapshot.getTemperature(), 0f);
+        Assert.assertEquals(375, snapshot.getBodyDeciTemperature());
+        Assert.assertEquals(301, snapshot.getSurfaceDeciTemperature());
+        Assert.assertEquals(10, snapshot.getTimestampNanos());
+    }
+
+    @Test
+    public void testEverySnapshotIsNewObject() throws Exception {
+        ThermometerReading reading = new ThermometerReading(37.5f, ThermometerUnit.CELSIUS, ThermometerMode.BODY);
+        ThermometerReadingSnapshot first = new ThermometerReadingSnapshot(reading);
+        reading.setDeciTemperature(380);
+        ThermometerReadingSnapshot second = new ThermometerReadingSnapshot(reading);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(375, first.getDeciTemperature());
+        Assert.assertEquals(380, second.getDeciTemperature());
+    }
+
+    @Test
+    public void testToReadingIsModifiableCopy() throws Exception {
+        ThermometerReading reading = new ThermometerReading(37.5f, ThermometerUnit.CELSIUS, ThermometerMode.SURFACE);
+        reading.setSurfaceDeciTemperature(375);
+        reading.setTimestampNanos(10);
+        ThermometerReadingSnapshot snapshot = new ThermometerReadingSnapshot(reading);
+
+        ThermometerReading copy = snapshot.toReading();
+        Assert.assertEquals(snapshot.getDeciTemperature(), copy.getDeciTemperature());
+        Assert.assertEquals(snapshot.getTemperature(), copy.getTemperature(), 0f);
+        Assert.assertEquals(snapshot.getSurfaceDeciTemperature(), copy.getSurfaceDeciTemperature());
+        Assert.assertEquals(snapshot.getTimestampNanos(), copy.getTimestampNanos());
+        Assert.assertEquals(snapshot.getThermometerMode(), copy.getThermometerMode());
+        copy.setDeciTemperature(1);
+        Assert.assertEquals(375, snapshot.getDeciTemperature());
+    }
+}
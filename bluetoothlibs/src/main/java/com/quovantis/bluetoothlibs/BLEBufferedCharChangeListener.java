@@ -0,0 +1,19 @@
+package com.quovantis.bluetoothlibs;
+
+/**
+ * Callback listener which receives messages in pooled {@link ReceiveBuffer} in place of a new array
+ * per message
+ * <p/>
+ * If listener set in {@link BluetoothManager#setCallbackListener(BLECharChangeListener)} implements
+ * this interface then messages are received in {@link #onMessageReceived(ReceiveBuffer)} in place of
+ * {@link BLECharChangeListener#onMessageReceived(byte[])}
+ */
+public interface BLEBufferedCharChangeListener extends BLECharChangeListener {
+    /**
+     * Method will be called on received some message from bluetooth device, listener owns the buffer
+     * and must call {@link ReceiveBuffer#release()} when it is done with the data
+     *
+     * @param buffer buffer containing the message and its receive time
+     */
+    public void onMessageReceived(ReceiveBuffer buffer);
+}
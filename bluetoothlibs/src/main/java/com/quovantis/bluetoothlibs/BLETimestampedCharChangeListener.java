@@ -0,0 +1,21 @@
+package com.quovantis.bluetoothlibs;
+
+import android.os.SystemClock;
+
+/**
+ * Callback listener which also receives the time when message was received from bluetooth device
+ * <p/>
+ * If listener set in {@link BluetoothManager#setCallbackListener(BLECharChangeListener)} implements
+ * this interface then messages are received in {@link #onMessageReceived(byte[], long)} in place of
+ * {@link BLECharChangeListener#onMessageReceived(byte[])}
+ */
+public interface BLETimestampedCharChangeListener extends BLECharChangeListener {
+    /**
+     * Method will be called on received some message from bluetooth device
+     *
+     * @param message        message will received in byte array format
+     * @param timestampNanos {@link SystemClock#elapsedRealtimeNanos()} when characteristic change was
+     *                       received from bluetooth stack, before any thread hop
+     */
+    public void onMessageReceived(byte[] message, long timestampNanos);
+}
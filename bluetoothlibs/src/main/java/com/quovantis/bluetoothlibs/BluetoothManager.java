@@ -6,16 +6,19 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.os.Bundle;
 import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
 import android.os.Message;
 import android.text.TextUtils;
 import android.widget.Toast;
 
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class will provide functionality to handle bluetooth related operation from here.
@@ -29,6 +32,10 @@ import java.util.List;
  * <p/>
  * To use services of Bluetooth manager first you need to call {@link BluetoothManager#initService()} method
  * which will initialize useful resources for the Bluetooth service
+ * <p/>
+ * Callbacks of {@link BLECharChangeListener} are called on looper of {@link ManagerConfig#setCallbackLooper(android.os.Looper)},
+ * on main looper if it is not set, or on a dedicated thread of the manager when
+ * {@link ManagerConfig#setDedicatedCallbackThread(boolean)} is enabled
  */
 public class BluetoothManager {
     private boolean mIsBluetoothActive = false;
@@ -36,8 +43,12 @@ public class BluetoothManager {
     private ManagerConfig mManagerConfig;
     private BluetoothService mBluetoothService;
     private static BluetoothManager sInstance;
-    private HashMap<String, BluetoothDevice> mDevices = new HashMap<String, BluetoothDevice>();
+    private ConcurrentHashMap<String, BluetoothDevice> mDevices = new ConcurrentHashMap<String, BluetoothDevice>();
     private BluetoothCallbackHandler mBluetoothCallbackHandler;
+    /**
+     * Dedicated thread for callbacks when it is enabled and looper is not provided in config
+     */
+    private HandlerThread mCallbackThread;
     private BLECharChangeListener mCallbackListener;
     private final BluetoothStateChangesListener mListener;
 
@@ -57,7 +68,8 @@ public class BluetoothManager {
         if (checkBluetoothEnable(context)) {
             mIsBluetoothActive = true;
             mBluetoothService = new BluetoothService(context, mManagerConfig.getDeviceUUID(),
-                    mManagerConfig.getCharacteristicUUID(), mManagerConfig.getCharConfigUUID());
+                    mManagerConfig.getCharacteristicUUID(), mManagerConfig.getCharConfigUUID(),
+                    mManagerConfig.getWriteCharUUID());
         }
     }
 
@@ -102,8 +114,9 @@ public class BluetoothManager {
      */
     public void initService() {
         if (isBLEServiceAvailable()) return;
-        mBluetoothCallbackHandler = new BluetoothCallbackHandler();
+        mBluetoothCallbackHandler = new BluetoothCallbackHandler(getCallbackLooper());
         mBluetoothService.setCallbackListener(mBluetoothCallbackHandler);
+        mBluetoothService.setOperationTimeout(mManagerConfig.getOperationTimeout());
     }
 
     /**
@@ -121,6 +134,22 @@ public class BluetoothManager {
         mBluetoothService.scan(scan);
     }
 
+    /**
+     * Method use to start scanning of devices which advertise any of the services, or to stop scanning
+     *
+     * @param scan         true if want to start scanning for bluetooth devices else false
+     * @param serviceUUIDs UUIDs of services, null or empty for scanning devices of service of config
+     */
+    public void scan(boolean scan, UUID[] serviceUUIDs) {
+        if (!checkBluetoothEnable(mContext)) {
+            return;
+        }
+        if (null == mBluetoothCallbackHandler) {
+            throw new IllegalStateException("Can't scan for device before calling #initService method");
+        }
+        mBluetoothService.scan(scan, serviceUUIDs);
+    }
+
     /**
      * Method use to connect with a bluetooth device
      *
@@ -139,14 +168,39 @@ public class BluetoothManager {
 
     /**
      * Method use to send commands on bluetooth device.
+     * Commands are queued after pending operations, so consecutive commands are not dropped
      *
      * @param commands Commands can be only byte array
+     * @return true if commands are queued
      */
     public boolean sendCommands(byte[] commands) {
-        if (isBLEServiceAvailable()) return false;
-        mBluetoothService.send(commands,
-                mManagerConfig.getWriteCharUUID());
-        return true;
+        return writeCommands(commands).getStatus() != GattOperation.STATUS_NOT_STARTED;
+    }
+
+    /**
+     * Method use to send commands on bluetooth device and track their completion
+     *
+     * @param commands Commands can be only byte array
+     * @return operation which completes when device acknowledges the write
+     */
+    public GattOperation writeCommands(byte[] commands) {
+        if (isBLEServiceAvailable()) {
+            return GattOperation.failed(GattOperation.TYPE_WRITE_CHARACTERISTIC, GattOperation.STATUS_NOT_STARTED);
+        }
+        return mBluetoothService.send(commands, mManagerConfig.getWriteCharUUID());
+    }
+
+    /**
+     * Method use to read value of a characteristic of connected device
+     *
+     * @param characteristicId characteristic UUID in service of the device
+     * @return operation which completes with read value in {@link GattOperation#getValue()}
+     */
+    public GattOperation readCharacteristic(UUID characteristicId) {
+        if (isBLEServiceAvailable()) {
+            return GattOperation.failed(GattOperation.TYPE_READ_CHARACTERISTIC, GattOperation.STATUS_NOT_STARTED);
+        }
+        return mBluetoothService.read(characteristicId);
     }
 
     /**
@@ -168,6 +222,30 @@ public class BluetoothManager {
         mIsBluetoothActive = false;
         mBluetoothService = null;
         mContext.unregisterReceiver(mListener);
+        if (null != mCallbackThread) {
+            mCallbackThread.quit();
+            mCallbackThread = null;
+        }
+    }
+
+    /**
+     * Get looper for callbacks from config, looper of dedicated thread which is started on first call
+     * when it is enabled, or main looper
+     *
+     * @return Looper
+     */
+    private Looper getCallbackLooper() {
+        if (null != mManagerConfig.getCallbackLooper()) {
+            return mManagerConfig.getCallbackLooper();
+        }
+        if (!mManagerConfig.isDedicatedCallbackThread()) {
+            return Looper.getMainLooper();
+        }
+        if (null == mCallbackThread) {
+            mCallbackThread = new HandlerThread("BluetoothCallbacks");
+            mCallbackThread.start();
+        }
+        return mCallbackThread.getLooper();
     }
 
     /**
@@ -202,17 +280,23 @@ public class BluetoothManager {
     }
 
     private class BluetoothCallbackHandler extends Handler {
+        BluetoothCallbackHandler(Looper looper) {
+            super(looper);
+        }
+
         @Override
         public void handleMessage(Message msg) {
             super.handleMessage(msg);
-            Bundle data = msg.getData();
-            switch (msg.what) {
-                case BluetoothService.ERROR_WHAT:
-                    int errorType = data.getInt(BluetoothService.ERROR, -1);
-                    if (-1 != errorType) {
-                        switch (errorType) {
+            if (!(msg.obj instanceof ServiceEvent)) {
+                return;
+            }
+            ServiceEvent event = (ServiceEvent) msg.obj;
+            try {
+                switch (msg.what) {
+                    case BluetoothService.ERROR_WHAT:
+                        switch (event.mError) {
                             case BluetoothConstants.DEVICE_SOURCE_DISCONNECTED:
-                                String deviceAddress = data.getString(BluetoothService.DATA);
+                                String deviceAddress = event.mAddress;
                                 if (!TextUtils.isEmpty(deviceAddress)) {
                                     mDevices.remove(deviceAddress);
                                     if (null != mCallbackListener) {
@@ -224,29 +308,50 @@ public class BluetoothManager {
                                 }
                                 break;
                         }
-                    }
-                    break;
-                case BluetoothService.DEVICE_WHAT:
-                    BluetoothDevice device = data.getParcelable(BluetoothService.DATA);
-                    //check whether the device is already is exist or not
-                    if (null != device && mDevices.get(device.getAddress()) == null) {
-                        mDevices.put(device.getAddress(), device);
-                        DeviceItem item = new DeviceItem();
-                        item.setDeviceName(device.getName());
-                        item.setDeviceAddress(device.getAddress());
-                        item.setDeviceRSSI(data.getInt(BluetoothService.RSSI));
-                        item.setIsDiscovered(true);
-                        if (null != mCallbackListener) {
-                            mCallbackListener.onDeviceStateChanged(item);
+                        break;
+                    case BluetoothService.DEVICE_WHAT:
+                        BluetoothDevice device = event.mDevice;
+                        //check whether the device is already is exist or not
+                        if (null != device && mDevices.putIfAbsent(device.getAddress(), device) == null) {
+                            DeviceItem item = new DeviceItem();
+                            item.setDeviceName(device.getName());
+                            item.setDeviceAddress(device.getAddress());
+                            item.setDeviceRSSI(event.mRssi);
+                            item.setServiceUUIDs(event.mServiceUUIDs);
+                            item.setIsDiscovered(true);
+                            if (null != mCallbackListener) {
+                                mCallbackListener.onDeviceStateChanged(item);
+                            }
                         }
-                    }
-                    break;
-                case BluetoothService.DATA_WHAT:
-                    byte[] message = data.getByteArray(BluetoothService.DATA);
-                    if (null != message && null != mCallbackListener) {
-                        mCallbackListener.onMessageReceived(message);
-                    }
-                    break;
+                        break;
+                    case BluetoothService.DATA_WHAT:
+                        ReceiveBuffer buffer = event.mBuffer;
+                        if (null == buffer) {
+                            break;
+                        }
+                        BLECharChangeListener listener = mCallbackListener;
+                        if (listener instanceof BLEBufferedCharChangeListener) {
+                            //ownership of buffer passes to the listener
+                            ((BLEBufferedCharChangeListener) listener).onMessageReceived(buffer);
+                            break;
+                        }
+                        try {
+                            if (null != listener) {
+                                byte[] message = Arrays.copyOf(buffer.getData(), buffer.getLength());
+                                if (listener instanceof BLETimestampedCharChangeListener) {
+                                    ((BLETimestampedCharChangeListener) listener).onMessageReceived(message
+                                            , buffer.getTimestampNanos());
+                                } else {
+                                    listener.onMessageReceived(message);
+                                }
+                            }
+                        } finally {
+                            buffer.release(event.mBufferGeneration);
+                        }
+                        break;
+                }
+            } finally {
+                event.recycle();
             }
         }
     }
@@ -268,7 +373,8 @@ public class BluetoothManager {
                         == BluetoothAdapter.STATE_ON) {
                     mIsBluetoothActive = true;
                     mBluetoothService = new BluetoothService(context, mManagerConfig.getDeviceUUID(),
-                            mManagerConfig.getCharacteristicUUID(), mManagerConfig.getCharConfigUUID());
+                            mManagerConfig.getCharacteristicUUID(), mManagerConfig.getCharConfigUUID(),
+                            mManagerConfig.getWriteCharUUID());
                     initService();
                 }
             }
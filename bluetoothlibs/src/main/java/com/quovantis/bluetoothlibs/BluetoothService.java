@@ -6,11 +6,18 @@ package com.quovantis.bluetoothlibs;
 import android.bluetooth.*;
 import android.bluetooth.BluetoothManager;
 import android.content.Context;
-import android.os.Bundle;
+import android.content.pm.ApplicationInfo;
+import android.os.Build;
 import android.os.Handler;
 import android.os.Message;
+import android.os.SystemClock;
 import android.util.Log;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -37,18 +44,71 @@ public class BluetoothService {
      * in this field
      */
     private final UUID mClientConfigId;
+    /**
+     * Characteristic id used for writing commands on connected device
+     */
+    private final UUID mWriteCharacteristicId;
 
     public static final int DATA_WHAT = 1;
     public static final int DEVICE_WHAT = 2;
 
     public static final int ERROR_WHAT = -1;
+    /**
+     * @deprecated callback messages carry a {@link ServiceEvent} in {@link Message#obj} in place of a Bundle
+     */
+    @Deprecated
     public static final String DATA = "data";
+    /**
+     * @deprecated callback messages carry a {@link ServiceEvent} in {@link Message#obj} in place of a Bundle
+     */
+    @Deprecated
     public static final String ERROR = "error";
 
+    /**
+     * @deprecated callback messages carry a {@link ServiceEvent} in {@link Message#obj} in place of a Bundle
+     */
+    @Deprecated
     public static final String RSSI = "rssi";
     public static final int ADV_DATA_FLAG = 0x01;
 
     public static final int LIMITED_AND_GENERAL_DISC_MASK = 0x03;
+    /**
+     * Advertising data types of incomplete and complete lists of 16, 32 and 128 bit service UUIDs
+     */
+    private static final int ADV_DATA_UUID16_INCOMPLETE = 0x02;
+    private static final int ADV_DATA_UUID16_COMPLETE = 0x03;
+    private static final int ADV_DATA_UUID32_INCOMPLETE = 0x04;
+    private static final int ADV_DATA_UUID32_COMPLETE = 0x05;
+    private static final int ADV_DATA_UUID128_INCOMPLETE = 0x06;
+    private static final int ADV_DATA_UUID128_COMPLETE = 0x07;
+    /**
+     * Bluetooth base UUID, short UUIDs are placed in its top 32 bits
+     */
+    private static final long BASE_UUID_MOST_BITS = 0x0000000000001000L;
+    private static final long BASE_UUID_LEAST_BITS = 0x800000805F9B34FBL;
+    /**
+     * Number of pooled receive buffers, it is the number of notifications which can wait for
+     * the listener without allocation
+     */
+    static final int RECEIVE_BUFFER_COUNT = 16;
+    /**
+     * Capacity of pooled receive buffers till MTU is negotiated, payload of a notification with
+     * default ATT MTU
+     */
+    static final int RECEIVE_BUFFER_SIZE = 20;
+    /**
+     * Bytes of opcode and attribute handle in a notification
+     */
+    private static final int ATT_HEADER_SIZE = 3;
+    /**
+     * ATT MTU requested after service discovery, the largest one allowed by the stack
+     */
+    static final int REQUESTED_MTU = 517;
+    /**
+     * First API level which has {@code BluetoothGatt#requestMtu(int)}, below it the connection
+     * keeps the default ATT MTU
+     */
+    private static final int MTU_REQUEST_SDK = 21;
     private BluetoothAdapter mBtAdapter = null;
     public BluetoothGatt mBluetoothGatt = null;
 
@@ -58,6 +118,30 @@ public class BluetoothService {
     private GattCallbacks mGattCallbacks = new GattCallbacks();
     private LeScanCallback mLeScanCallback = new LeScanCallback();
     private Context mContext;
+    private final ReceiveBufferPool mReceiveBufferPool;
+    /**
+     * Handles resolved on service discovery of connected device, null till services are
+     * discovered and after disconnect
+     */
+    private volatile GattHandles mGattHandles;
+    /**
+     * Queue issuing GATT operations one at a time
+     */
+    private final GattOperationQueue mOperationQueue = new GattOperationQueue();
+    /**
+     * Timeout of every GATT operation in milliseconds
+     */
+    private volatile long mOperationTimeout = ManagerConfig.DEFAULT_OPERATION_TIMEOUT;
+    /**
+     * Services of running scan when it is filtered in {@link LeScanCallback}, null when stack
+     * filters the scan or there is no filter
+     */
+    private volatile UUID[] mScanUUIDs;
+    /**
+     * True while MTU request is in flight, notification is enabled when it completes as
+     * stack doesn't allow another GATT operation till then
+     */
+    private volatile boolean mMtuRequested;
 
     /**
      * Create new instance of BluetoothService
@@ -66,16 +150,28 @@ public class BluetoothService {
      * @param uuid             It is the UUID of requested service we are looking in bluetooth devices
      * @param characteristicId On the connected device if we want to use a specific character then provide that characteristic id in this parameter
      * @param clientConfigId   In the Characteristic to get a specific descriptor provide descriptor id in this field
+     * @param writeCharId      Characteristic id used for writing commands on connected device
      */
-    BluetoothService(Context context, UUID uuid, UUID characteristicId, UUID clientConfigId) {
+    BluetoothService(Context context, UUID uuid, UUID characteristicId, UUID clientConfigId, UUID writeCharId) {
         mUUID = uuid;
         mContext = context;
         mCharacteristicId = characteristicId;
         mClientConfigId = clientConfigId;
+        mWriteCharacteristicId = writeCharId;
         //get bluetooth manager from system service
         BluetoothManager btManager = (BluetoothManager) mContext
                 .getSystemService(Context.BLUETOOTH_SERVICE);
         mBtAdapter = btManager.getAdapter();
+        //track buffer leases only in debuggable builds of application
+        boolean debuggable = (mContext.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        mReceiveBufferPool = new ReceiveBufferPool(RECEIVE_BUFFER_COUNT, RECEIVE_BUFFER_SIZE, debuggable);
+        mOperationQueue.setOnStalledListener(new GattOperationQueue.OnStalledListener() {
+            @Override
+            public void onStalled() {
+                //stack didn't answer a timed out operation, a new connection resets it
+                disconnect();
+            }
+        });
     }
 
     /**
@@ -85,6 +181,18 @@ public class BluetoothService {
      */
     void setCallbackListener(Handler handler) {
         mCallbackListener = handler;
+        //timeouts of operations are handled on the same looper as callbacks
+        mOperationQueue.setTimeoutHandler(null == handler ? null : new Handler(handler.getLooper()));
+    }
+
+    /**
+     * Set timeout of GATT operations, an operation without completion callback in this time is
+     * completed with {@link GattOperation#STATUS_TIMEOUT}
+     *
+     * @param timeoutMillis timeout in milliseconds, 0 for no timeout
+     */
+    void setOperationTimeout(long timeoutMillis) {
+        mOperationTimeout = timeoutMillis;
     }
 
     /**
@@ -100,18 +208,31 @@ public class BluetoothService {
          */
         @Override
         public void onLeScan(BluetoothDevice device, int rssi, byte[] scanRecord) {
-            broadCastDevice(device, rssi, scanRecord);
+            List<UUID> serviceUUIDs = parseServiceUUIDs(scanRecord);
+            UUID[] scanUUIDs = mScanUUIDs;
+            if (null != scanUUIDs && !containsAny(serviceUUIDs, scanUUIDs)) {
+                return;
+            }
+            broadCastDevice(device, rssi, scanRecord, serviceUUIDs);
+        }
+    }
+
+    private static boolean containsAny(List<UUID> serviceUUIDs, UUID[] uuids) {
+        for (UUID uuid : uuids) {
+            if (serviceUUIDs.contains(uuid)) {
+                return true;
+            }
         }
+        return false;
     }
 
-    private void broadCastDevice(BluetoothDevice device, int rssi, byte[] scanRecord) {
+    private void broadCastDevice(BluetoothDevice device, int rssi, byte[] scanRecord, List<UUID> serviceUUIDs) {
         if (!checkIfBroadcastMode(scanRecord)) {
-            Bundle bundle = new Bundle();
-            Message msg = Message.obtain(mCallbackListener, DEVICE_WHAT);
-            bundle.putParcelable(DATA, device);
-            bundle.putInt(RSSI, rssi);
-            msg.setData(bundle);
-            msg.sendToTarget();
+            ServiceEvent event = ServiceEvent.obtain();
+            event.mDevice = device;
+            event.mRssi = rssi;
+            event.mServiceUUIDs = serviceUUIDs;
+            Message.obtain(mCallbackListener, DEVICE_WHAT, event).sendToTarget();
         } else {
             Log.i(TAG, "device =" + device + " is in Broadcast mode, hence not displaying");
         }
@@ -131,39 +252,172 @@ public class BluetoothService {
                 mBluetoothGatt.discoverServices();
             }
             if (newState == BluetoothProfile.STATE_DISCONNECTED) {
-                Bundle bundle = new Bundle();
-                Message msg = Message.obtain(mCallbackListener, ERROR_WHAT);
-                bundle.putString(DATA, gatt.getDevice().getAddress());
-                bundle.putInt(ERROR, BluetoothConstants.DEVICE_SOURCE_DISCONNECTED);
-                msg.setData(bundle);
-                msg.sendToTarget();
+                //handles are not valid for next connection
+                mGattHandles = null;
+                //MTU is negotiated again for next connection
+                mMtuRequested = false;
+                mReceiveBufferPool.setBufferSize(RECEIVE_BUFFER_SIZE);
+                mOperationQueue.clear(GattOperation.STATUS_DISCONNECTED);
+                ServiceEvent event = ServiceEvent.obtain();
+                event.mAddress = gatt.getDevice().getAddress();
+                event.mError = BluetoothConstants.DEVICE_SOURCE_DISCONNECTED;
+                Message.obtain(mCallbackListener, ERROR_WHAT, event).sendToTarget();
             }
         }
 
         @Override
         public void onServicesDiscovered(BluetoothGatt gatt, int status) {
-            // TODO Auto-generated method stub
-
-            BluetoothGattCharacteristic characteristic = getBluetoothGattCharacteristic(
-            );
+            if (status != BluetoothGatt.GATT_SUCCESS) {
+                Log.e(TAG, "service discovery failed " + status);
+                mGattHandles = null;
+                return;
+            }
+            mGattHandles = resolveGattHandles(gatt);
 
-            if (enableNotification(characteristic, true)) {
-                Log.v(TAG, "enableNotification is ok...");
+            //larger MTU lets a frame arrive in one notification, notification is enabled
+            //from onMtuChanged when request is started
+            mMtuRequested = requestMtu(gatt);
+            if (!mMtuRequested) {
+                enableNotification();
             }
         }
 
         @Override
         public void onCharacteristicChanged(BluetoothGatt gatt,
                 BluetoothGattCharacteristic characteristic) {
-            byte[] buffer = characteristic.getValue();
-            Bundle bundle = new Bundle();
-            Message msg = Message.obtain(mCallbackListener, DATA_WHAT);
-            bundle.putByteArray(DATA, buffer);
-            msg.setData(bundle);
-            msg.sendToTarget();
+            //stamp before any work so time doesn't include delay of thread hops
+            long timestamp = SystemClock.elapsedRealtimeNanos();
+            ServiceEvent event = ServiceEvent.obtain();
+            //copy out of the stack's array, it is reused for next notification
+            event.mBuffer = mReceiveBufferPool.lease(characteristic.getValue(), timestamp);
+            event.mBufferGeneration = event.mBuffer.getLeaseGeneration();
+            Message.obtain(mCallbackListener, DATA_WHAT, event).sendToTarget();
+        }
+
+        @Override
+        public void onCharacteristicWrite(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic,
+                int status) {
+            mOperationQueue.onOperationComplete(GattOperation.TYPE_WRITE_CHARACTERISTIC, characteristic,
+                    status, null);
+        }
+
+        @Override
+        public void onCharacteristicRead(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic,
+                int status) {
+            byte[] value = characteristic.getValue();
+            mOperationQueue.onOperationComplete(GattOperation.TYPE_READ_CHARACTERISTIC, characteristic,
+                    status, null == value ? null : value.clone());
+        }
+
+        @Override
+        public void onDescriptorWrite(BluetoothGatt gatt, BluetoothGattDescriptor descriptor, int status) {
+            mOperationQueue.onOperationComplete(GattOperation.TYPE_WRITE_DESCRIPTOR, descriptor, status, null);
+        }
+
+        /**
+         * Called from API 21 when ATT MTU of connection is changed, not annotated with Override as
+         * library is compiled against API 18
+         */
+        public void onMtuChanged(BluetoothGatt gatt, int mtu, int status) {
+            if (status == BluetoothGatt.GATT_SUCCESS && mtu > ATT_HEADER_SIZE) {
+                //notification value is MTU less opcode and handle
+                mReceiveBufferPool.setBufferSize(mtu - ATT_HEADER_SIZE);
+            }
+            if (mMtuRequested) {
+                mMtuRequested = false;
+                enableNotification();
+            }
+        }
+
+        private void enableNotification() {
+            if (BluetoothService.this.enableNotification(getBluetoothGattCharacteristic(), true)) {
+                Log.v(TAG, "enableNotification is ok...");
+            }
         }
     }
 
+    /**
+     * Request {@link #REQUESTED_MTU} on API 21 and above, method is called by reflection as
+     * library is compiled against API 18
+     *
+     * @param gatt connected GATT client
+     * @return true if request is started and {@code onMtuChanged} will be called
+     */
+    private static boolean requestMtu(BluetoothGatt gatt) {
+        if (Build.VERSION.SDK_INT < MTU_REQUEST_SDK) {
+            return false;
+        }
+        try {
+            Method requestMtu = BluetoothGatt.class.getMethod("requestMtu", int.class);
+            return Boolean.TRUE.equals(requestMtu.invoke(gatt, REQUESTED_MTU));
+        } catch (NoSuchMethodException e) {
+            Log.w(TAG, "requestMtu is not available", e);
+        } catch (IllegalAccessException e) {
+            Log.w(TAG, "requestMtu is not accessible", e);
+        } catch (InvocationTargetException e) {
+            Log.w(TAG, "requestMtu failed", e.getCause());
+        }
+        return false;
+    }
+
+    /**
+     * Get service UUIDs from 16, 32 and 128 bit service lists of advertisement
+     *
+     * @param scanRecord advertisement and scan response of device
+     * @return service UUIDs, empty if advertisement doesn't have service lists
+     */
+    static List<UUID> parseServiceUUIDs(byte[] scanRecord) {
+        List<UUID> uuids = null;
+        int offset = 0;
+        while (null != scanRecord && offset < scanRecord.length - 1) {
+            int len = scanRecord[offset] & 0xFF;
+            if (len == 0 || offset + len >= scanRecord.length) {
+                break;
+            }
+            int type = scanRecord[offset + 1] & 0xFF;
+            int size;
+            switch (type) {
+                case ADV_DATA_UUID16_INCOMPLETE:
+                case ADV_DATA_UUID16_COMPLETE:
+                    size = 2;
+                    break;
+                case ADV_DATA_UUID32_INCOMPLETE:
+                case ADV_DATA_UUID32_COMPLETE:
+                    size = 4;
+                    break;
+                case ADV_DATA_UUID128_INCOMPLETE:
+                case ADV_DATA_UUID128_COMPLETE:
+                    size = 16;
+                    break;
+                default:
+                    size = 0;
+                    break;
+            }
+            //UUIDs are little endian, data starts after length and type bytes
+            for (int start = offset + 2; size > 0 && start + size <= offset + 1 + len; start += size) {
+                if (null == uuids) {
+                    uuids = new ArrayList<UUID>(2);
+                }
+                long value = readLittleEndian(scanRecord, start, Math.min(size, 8));
+                if (size == 16) {
+                    uuids.add(new UUID(readLittleEndian(scanRecord, start + 8, 8), value));
+                } else {
+                    uuids.add(new UUID(value << 32 | BASE_UUID_MOST_BITS, BASE_UUID_LEAST_BITS));
+                }
+            }
+            offset += len + 1;
+        }
+        return null == uuids ? Collections.<UUID>emptyList() : uuids;
+    }
+
+    private static long readLittleEndian(byte[] data, int offset, int size) {
+        long value = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            value = value << 8 | (data[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
     /*
      * Broadcast mode checker API
      */
@@ -201,23 +455,61 @@ public class BluetoothService {
     }
 
     /**
-     * To get characteristic offer by bluetooth device to provided UUID
+     * Handles of service, characteristics and descriptor used by the service on connected device
+     */
+    static final class GattHandles {
+        final BluetoothGattService mService;
+        final BluetoothGattCharacteristic mNotifyCharacteristic;
+        final BluetoothGattDescriptor mClientConfig;
+        final BluetoothGattCharacteristic mWriteCharacteristic;
+
+        GattHandles(BluetoothGattService service, BluetoothGattCharacteristic notifyCharacteristic,
+                BluetoothGattDescriptor clientConfig, BluetoothGattCharacteristic writeCharacteristic) {
+            mService = service;
+            mNotifyCharacteristic = notifyCharacteristic;
+            mClientConfig = clientConfig;
+            mWriteCharacteristic = writeCharacteristic;
+        }
+    }
+
+    /**
+     * Look up service, characteristics and descriptor once after service discovery
      *
-     * @return BluetoothGattCharacteristic
+     * @return handles or null if service is not offered by device
      */
-    BluetoothGattCharacteristic getBluetoothGattCharacteristic() {
-        BluetoothGattService service = mBluetoothGatt.getService(mUUID);
+    private GattHandles resolveGattHandles(BluetoothGatt gatt) {
+        BluetoothGattService service = gatt.getService(mUUID);
         if (service == null) {
             Log.e(TAG, "service not found!");
             return null;
         }
-        BluetoothGattCharacteristic character = service
-                .getCharacteristic(mCharacteristicId);
-        if (character == null) {
+        BluetoothGattCharacteristic notifyCharacteristic = service.getCharacteristic(mCharacteristicId);
+        if (notifyCharacteristic == null) {
             Log.e(TAG, "Characteristic not found!");
+        }
+        BluetoothGattDescriptor clientConfig = null == notifyCharacteristic ? null
+                : notifyCharacteristic.getDescriptor(mClientConfigId);
+        BluetoothGattCharacteristic writeCharacteristic = null == mWriteCharacteristicId ? null
+                : service.getCharacteristic(mWriteCharacteristicId);
+        if (null != mWriteCharacteristicId && writeCharacteristic == null) {
+            Log.e(TAG, "Write characteristic not found!");
+        }
+        return new GattHandles(service, notifyCharacteristic, clientConfig, writeCharacteristic);
+    }
+
+    /**
+     * To get characteristic offer by bluetooth device to provided UUID, it is resolved
+     * once when services of connected device are discovered
+     *
+     * @return BluetoothGattCharacteristic or null if services are not discovered yet
+     */
+    BluetoothGattCharacteristic getBluetoothGattCharacteristic() {
+        GattHandles handles = mGattHandles;
+        if (handles == null) {
+            Log.e(TAG, "services are not discovered!");
             return null;
         }
-        return character;
+        return handles.mNotifyCharacteristic;
     }
 
     /**
@@ -226,27 +518,31 @@ public class BluetoothService {
      *
      * @param characteristic Characteristic of bluetooth device with Current UUID
      * @param enable         true if want to enable the notification else false
-     * @return is notification is enable or not
+     * @return true if notification is enabled locally and write of descriptor is queued
      */
     boolean enableNotification(BluetoothGattCharacteristic characteristic, boolean enable) {
-        if (mBluetoothGatt == null)
+        if (mBluetoothGatt == null || characteristic == null)
             return false;
         if (!mBluetoothGatt.setCharacteristicNotification(characteristic, enable))
             return false;
 
-        BluetoothGattDescriptor clientConfig = characteristic
-                .getDescriptor(mClientConfigId);
+        GattHandles handles = mGattHandles;
+        BluetoothGattDescriptor clientConfig = null != handles && characteristic == handles.mNotifyCharacteristic
+                ? handles.mClientConfig : characteristic.getDescriptor(mClientConfigId);
         if (clientConfig == null)
             return false;
 
+        byte[] value;
         if (enable) {
             Log.i(TAG, "enable notification");
-            clientConfig.setValue(BluetoothGattDescriptor.ENABLE_NOTIFICATION_VALUE);
+            value = BluetoothGattDescriptor.ENABLE_NOTIFICATION_VALUE;
         } else {
             Log.i(TAG, "disable notification");
-            clientConfig.setValue(BluetoothGattDescriptor.DISABLE_NOTIFICATION_VALUE);
+            value = BluetoothGattDescriptor.DISABLE_NOTIFICATION_VALUE;
         }
-        return mBluetoothGatt.writeDescriptor(clientConfig);
+        GattOperation operation = mOperationQueue.enqueue(
+                GattOperation.writeDescriptor(mBluetoothGatt, clientConfig, value, mOperationTimeout));
+        return operation.getStatus() != GattOperation.STATUS_NOT_STARTED;
     }
 
     /**
@@ -257,19 +553,36 @@ public class BluetoothService {
      * @param start boolean value true if want to start scanning else false for stop scanning.
      */
     void scan(boolean start) {
+        scan(start, null);
+    }
+
+    /**
+     * Start scanning for devices which advertise any of the services or stop scanning, scan of one
+     * service is filtered by bluetooth stack and scan of more services is filtered on advertised
+     * service UUIDs as stack matches only devices which advertise all of them
+     *
+     * @param start        boolean value true if want to start scanning else false for stop scanning
+     * @param serviceUUIDs UUIDs of services, null or empty for the service of this instance
+     */
+    void scan(boolean start, UUID[] serviceUUIDs) {
         if (mBtAdapter == null)
             return;
+        if (null == serviceUUIDs || serviceUUIDs.length == 0) {
+            serviceUUIDs = null == mUUID ? null : new UUID[]{mUUID};
+        }
         if (start) {
             Set<BluetoothDevice> devices = mBtAdapter.getBondedDevices();
             //If their is any already bounded devices with bluetooth adapter then pass it from here
             if (!devices.isEmpty()) {
                 for (BluetoothDevice device : devices) {
-                    broadCastDevice(device, 0, new byte[]{});
+                    broadCastDevice(device, 0, new byte[]{}, Collections.<UUID>emptyList());
                 }
             }
-            if (null != mUUID) {
-                mBtAdapter.startLeScan(new UUID[]{mUUID}, mLeScanCallback);
+            if (null != serviceUUIDs && serviceUUIDs.length == 1) {
+                mScanUUIDs = null;
+                mBtAdapter.startLeScan(serviceUUIDs, mLeScanCallback);
             } else {
+                mScanUUIDs = serviceUUIDs;
                 mBtAdapter.startLeScan(mLeScanCallback);
             }
         } else {
@@ -309,6 +622,7 @@ public class BluetoothService {
         }
         // We want to directly connect to the device, so we are setting the autoConnect
         // parameter to false.
+        mGattHandles = null;
         mBluetoothGatt = device.connectGatt(mContext, autoConnect, mGattCallbacks);
         mBluetoothDeviceAddress = address;
         return true;
@@ -317,25 +631,50 @@ public class BluetoothService {
     /**
      * Send data on connected device use this method which accepts
      * byte array in parameter for sending data on connecting device
+     * <p/>
+     * Characteristic is taken from handles resolved on service discovery, so nothing is
+     * sent before services of connected device are discovered
+     * <p/>
+     * Write is queued and issued after completion of previous operations, buffer is copied so
+     * caller can reuse it
      *
      * @param buffer        data byte array
      * @param writeCharUUID for write in bluetooth device character UUID
+     * @return operation which completes when device acknowledges the write
      */
-    void send(byte[] buffer, UUID writeCharUUID) {
-        if (mBluetoothGatt != null) {
-            BluetoothGattService writeService = mBluetoothGatt.getService(mUUID);
-            if (writeService == null) {
-                return;
-            }
+    GattOperation send(byte[] buffer, UUID writeCharUUID) {
+        BluetoothGatt gatt = mBluetoothGatt;
+        GattHandles handles = mGattHandles;
+        if (gatt == null || handles == null) {
+            return GattOperation.failed(GattOperation.TYPE_WRITE_CHARACTERISTIC, GattOperation.STATUS_NOT_STARTED);
+        }
+        BluetoothGattCharacteristic writeCharacteristic = null != writeCharUUID && writeCharUUID.equals(mWriteCharacteristicId)
+                ? handles.mWriteCharacteristic : handles.mService.getCharacteristic(writeCharUUID);
+        if (writeCharacteristic == null) {
+            return GattOperation.failed(GattOperation.TYPE_WRITE_CHARACTERISTIC, GattOperation.STATUS_NOT_STARTED);
+        }
+        return mOperationQueue.enqueue(
+                GattOperation.writeCharacteristic(gatt, writeCharacteristic, buffer, mOperationTimeout));
+    }
 
-            BluetoothGattCharacteristic writeCharacteristic = writeService
-                    .getCharacteristic(writeCharUUID);
-            if (writeCharacteristic == null) {
-                return;
-            }
-            writeCharacteristic.setValue(buffer);
-            mBluetoothGatt.writeCharacteristic(writeCharacteristic);
+    /**
+     * Read value of characteristic of connected device, read is queued like writes
+     *
+     * @param charUUID characteristic UUID in service of the device
+     * @return operation which completes with read value
+     */
+    GattOperation read(UUID charUUID) {
+        BluetoothGatt gatt = mBluetoothGatt;
+        GattHandles handles = mGattHandles;
+        if (gatt == null || handles == null || charUUID == null) {
+            return GattOperation.failed(GattOperation.TYPE_READ_CHARACTERISTIC, GattOperation.STATUS_NOT_STARTED);
+        }
+        BluetoothGattCharacteristic characteristic = charUUID.equals(mCharacteristicId)
+                ? handles.mNotifyCharacteristic : handles.mService.getCharacteristic(charUUID);
+        if (characteristic == null) {
+            return GattOperation.failed(GattOperation.TYPE_READ_CHARACTERISTIC, GattOperation.STATUS_NOT_STARTED);
         }
+        return mOperationQueue.enqueue(GattOperation.readCharacteristic(gatt, characteristic, mOperationTimeout));
     }
 
     /**
@@ -361,5 +700,7 @@ public class BluetoothService {
         }
         mBluetoothGatt.close();
         mBluetoothGatt = null;
+        mGattHandles = null;
+        mOperationQueue.clear(GattOperation.STATUS_DISCONNECTED);
     }
 }
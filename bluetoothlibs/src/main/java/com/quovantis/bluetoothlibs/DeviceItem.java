@@ -3,6 +3,11 @@ package com.quovantis.bluetoothlibs;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
 public class DeviceItem implements Parcelable {
 
     private String mDeviceName;
@@ -10,6 +15,10 @@ public class DeviceItem implements Parcelable {
     private int mDeviceRSSI;
     private boolean mConnected;
     private boolean mIsDiscovered;
+    /**
+     * Service UUIDs in advertisement of device, empty if they are not known
+     */
+    private List<UUID> mServiceUUIDs = Collections.emptyList();
 
     public String getDeviceName() {
         return mDeviceName;
@@ -51,6 +60,19 @@ public class DeviceItem implements Parcelable {
         mIsDiscovered = isDiscovered;
     }
 
+    /**
+     * @return service UUIDs in advertisement of device, empty for devices which are not seen in
+     * scan like already bonded devices
+     */
+    public List<UUID> getServiceUUIDs() {
+        return mServiceUUIDs;
+    }
+
+    public void setServiceUUIDs(List<UUID> serviceUUIDs) {
+        mServiceUUIDs = null == serviceUUIDs || serviceUUIDs.isEmpty() ? Collections.<UUID>emptyList()
+                : Collections.unmodifiableList(new ArrayList<UUID>(serviceUUIDs));
+    }
+
     @Override
     public int describeContents() {
         return 0;
@@ -63,6 +85,11 @@ public class DeviceItem implements Parcelable {
         dest.writeInt(mDeviceRSSI);
         dest.writeInt(mConnected ? 1 : 0);
         dest.writeInt(mIsDiscovered ? 1 : 0);
+        dest.writeInt(mServiceUUIDs.size());
+        for (UUID uuid : mServiceUUIDs) {
+            dest.writeLong(uuid.getMostSignificantBits());
+            dest.writeLong(uuid.getLeastSignificantBits());
+        }
     }
 
     public static final Creator<DeviceItem> CREATOR = new Creator<DeviceItem>() {
@@ -74,6 +101,12 @@ public class DeviceItem implements Parcelable {
             item.mDeviceRSSI = source.readInt();
             item.mConnected = source.readInt() == 1;
             item.mIsDiscovered = source.readInt() == 1;
+            int uuidCount = source.readInt();
+            List<UUID> serviceUUIDs = new ArrayList<UUID>(uuidCount);
+            for (int i = 0; i < uuidCount; i++) {
+                serviceUUIDs.add(new UUID(source.readLong(), source.readLong()));
+            }
+            item.setServiceUUIDs(serviceUUIDs);
             return item;
         }
 
@@ -0,0 +1,252 @@
+package com.quovantis.bluetoothlibs;
+
+import android.bluetooth.BluetoothGatt;
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>
+ * A GATT request waiting in the operation queue of {@link BluetoothService}, it is also the
+ * completion future of the request
+ * </p>
+ * <p>
+ * Result of future is status of operation, {@link BluetoothGatt#GATT_SUCCESS} or a status of
+ * bluetooth stack when completion callback is received, else one of the negative status of this
+ * class. Value read by a read operation is available from {@link #getValue()}
+ * </p>
+ */
+public class GattOperation implements Future<Integer> {
+
+    public static final int TYPE_WRITE_CHARACTERISTIC = 1;
+    public static final int TYPE_READ_CHARACTERISTIC = 2;
+    public static final int TYPE_WRITE_DESCRIPTOR = 3;
+
+    /**
+     * Operation is waiting in queue or for its completion callback
+     */
+    public static final int STATUS_PENDING = -1;
+    /**
+     * Completion callback is not received in timeout of operation
+     */
+    public static final int STATUS_TIMEOUT = -2;
+    /**
+     * Bluetooth stack refused to start operation or there was no connected device
+     */
+    public static final int STATUS_NOT_STARTED = -3;
+    /**
+     * Device was disconnected before operation was completed
+     */
+    public static final int STATUS_DISCONNECTED = -4;
+    /**
+     * Operation was cancelled before it was started
+     */
+    public static final int STATUS_CANCELLED = -5;
+
+    private final int mType;
+    private final BluetoothGatt mGatt;
+    /**
+     * Characteristic or descriptor of operation
+     */
+    private final Object mTarget;
+    /**
+     * Value to write, copied when operation is created so caller can reuse its array
+     */
+    private final byte[] mWriteValue;
+    private final long mTimeoutMillis;
+    /**
+     * Queue of operation, null for operations completed on creation
+     */
+    GattOperationQueue mQueue;
+    /**
+     * Sequence number given by queue when operation is issued, 0 till then
+     */
+    long mSequence;
+
+    private int mStatus = STATUS_PENDING;
+    private byte[] mValue;
+
+    GattOperation(int type, BluetoothGatt gatt, Object target, byte[] writeValue, long timeoutMillis) {
+        mType = type;
+        mGatt = gatt;
+        mTarget = target;
+        mWriteValue = null == writeValue ? null : writeValue.clone();
+        mTimeoutMillis = timeoutMillis;
+    }
+
+    static GattOperation writeCharacteristic(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic,
+            byte[] value, long timeoutMillis) {
+        return new GattOperation(TYPE_WRITE_CHARACTERISTIC, gatt, characteristic, value, timeoutMillis);
+    }
+
+    static GattOperation readCharacteristic(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic,
+            long timeoutMillis) {
+        return new GattOperation(TYPE_READ_CHARACTERISTIC, gatt, characteristic, null, timeoutMillis);
+    }
+
+    static GattOperation writeDescriptor(BluetoothGatt gatt, BluetoothGattDescriptor descriptor,
+            byte[] value, long timeoutMillis) {
+        return new GattOperation(TYPE_WRITE_DESCRIPTOR, gatt, descriptor, value, timeoutMillis);
+    }
+
+    /**
+     * Create operation which is already completed with a failure status
+     *
+     * @param type   type of operation
+     * @param status status of failure
+     * @return completed operation
+     */
+    static GattOperation failed(int type, int status) {
+        GattOperation operation = new GattOperation(type, null, null, null, 0);
+        operation.complete(status, null);
+        return operation;
+    }
+
+    /**
+     * Issue the operation on bluetooth stack, value is set on target just before so an other
+     * operation on same characteristic can't overwrite it
+     *
+     * @return true if stack accepted the operation
+     */
+    boolean start() {
+        if (null == mGatt || null == mTarget) {
+            return false;
+        }
+        switch (mType) {
+            case TYPE_WRITE_CHARACTERISTIC:
+                BluetoothGattCharacteristic characteristic = (BluetoothGattCharacteristic) mTarget;
+                return characteristic.setValue(mWriteValue) && mGatt.writeCharacteristic(characteristic);
+            case TYPE_READ_CHARACTERISTIC:
+                return mGatt.readCharacteristic((BluetoothGattCharacteristic) mTarget);
+            case TYPE_WRITE_DESCRIPTOR:
+                BluetoothGattDescriptor descriptor = (BluetoothGattDescriptor) mTarget;
+                return descriptor.setValue(mWriteValue) && mGatt.writeDescriptor(descriptor);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return true if completion callback of type and target belongs to this operation
+     */
+    boolean matches(int type, Object target) {
+        if (mType != type || null == target) {
+            return false;
+        }
+        if (mTarget == target) {
+            return true;
+        }
+        if (target instanceof BluetoothGattCharacteristic && mTarget instanceof BluetoothGattCharacteristic) {
+            return ((BluetoothGattCharacteristic) target).getUuid()
+                    .equals(((BluetoothGattCharacteristic) mTarget).getUuid());
+        }
+        if (target instanceof BluetoothGattDescriptor && mTarget instanceof BluetoothGattDescriptor) {
+            return ((BluetoothGattDescriptor) target).getUuid()
+                    .equals(((BluetoothGattDescriptor) mTarget).getUuid());
+        }
+        return false;
+    }
+
+    /**
+     * Set result of operation and wake up waiting threads
+     *
+     * @return false if operation was already completed
+     */
+    synchronized boolean complete(int status, byte[] value) {
+        if (mStatus != STATUS_PENDING) {
+            return false;
+        }
+        mStatus = status;
+        mValue = value;
+        notifyAll();
+        return true;
+    }
+
+    long getTimeoutMillis() {
+        return mTimeoutMillis;
+    }
+
+    /**
+     * @return one of TYPE_ constants
+     */
+    public int getType() {
+        return mType;
+    }
+
+    /**
+     * @return status of operation without waiting, {@link #STATUS_PENDING} till it is completed
+     */
+    public synchronized int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * @return true if operation is completed with {@link BluetoothGatt#GATT_SUCCESS}
+     */
+    public synchronized boolean isSuccess() {
+        return mStatus == BluetoothGatt.GATT_SUCCESS;
+    }
+
+    /**
+     * @return value read by a read operation, null for other operations or till it is completed
+     */
+    public synchronized byte[] getValue() {
+        return mValue;
+    }
+
+    /**
+     * Cancel the operation if it is still waiting in queue, an operation which is already issued
+     * on bluetooth stack can't be cancelled
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        GattOperationQueue queue = mQueue;
+        return null != queue && queue.cancel(this);
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return mStatus == STATUS_CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return mStatus != STATUS_PENDING;
+    }
+
+    @Override
+    public synchronized Integer get() throws InterruptedException, ExecutionException {
+        while (mStatus == STATUS_PENDING) {
+            wait();
+        }
+        return result();
+    }
+
+    @Override
+    public synchronized Integer get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+        while (mStatus == STATUS_PENDING) {
+            if (remaining <= 0) {
+                throw new TimeoutException("GATT operation is not completed");
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        return result();
+    }
+
+    private Integer result() {
+        if (mStatus == STATUS_CANCELLED) {
+            throw new CancellationException("GATT operation was cancelled");
+        }
+        return mStatus;
+    }
+}
@@ -0,0 +1,249 @@
+package com.quovantis.bluetoothlibs;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+
+/**
+ * <p>
+ * Queue of GATT operations, bluetooth stack handles one operation at a time and refuses a new one
+ * till completion callback of current one, so operations are issued one by one and next one
+ * is issued as soon as completion of current one is received
+ * </p>
+ * <p>
+ * Every operation has a timeout, if its completion is not received in time it is completed with
+ * {@link GattOperation#STATUS_TIMEOUT}. Completion callbacks carry only type and UUID, so next
+ * operation is not issued till the late callback of timed out operation arrives and is discarded,
+ * otherwise it could complete a newer operation of same characteristic. If late callback is not
+ * received in one more timeout then waiting operations are completed with
+ * {@link GattOperation#STATUS_TIMEOUT} and {@link OnStalledListener} is called to disconnect
+ * </p>
+ */
+final class GattOperationQueue {
+    private static final String TAG = "GattOperationQueue";
+
+    private final ArrayDeque<GattOperation> mPending = new ArrayDeque<GattOperation>();
+    /**
+     * Operation issued on bluetooth stack and waiting for completion
+     */
+    private GattOperation mCurrent;
+    /**
+     * Operation which timed out and whose late completion callback is awaited, no operation is
+     * issued while it is set
+     */
+    private GattOperation mTimedOut;
+    /**
+     * Sequence number of last issued operation
+     */
+    private long mSequence;
+    /**
+     * Sequence number of operation for which timeout is scheduled
+     */
+    private long mTimeoutSequence;
+    private OnStalledListener mStalledListener;
+    /**
+     * {@link SystemClock#uptimeMillis()} when current operation times out
+     */
+    private long mCurrentDeadline;
+    /**
+     * Handler for timeouts of operations, no timeout if it is null
+     */
+    private Handler mTimeoutHandler;
+    private final Runnable mTimeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onTimeout();
+        }
+    };
+
+    /**
+     * Set handler on which timeouts of operations are scheduled
+     *
+     * @param handler Handler or null for no timeout
+     */
+    synchronized void setTimeoutHandler(Handler handler) {
+        if (null != mTimeoutHandler) {
+            mTimeoutHandler.removeCallbacks(mTimeoutRunnable);
+        }
+        mTimeoutHandler = handler;
+        if (null != mCurrent) {
+            scheduleTimeout(mCurrent);
+        } else if (null != mTimedOut) {
+            scheduleTimeout(mTimedOut);
+        }
+    }
+
+    /**
+     * Set listener called when bluetooth stack doesn't answer a timed out operation
+     *
+     * @param listener OnStalledListener or null
+     */
+    synchronized void setOnStalledListener(OnStalledListener listener) {
+        mStalledListener = listener;
+    }
+
+    /**
+     * Add operation at end of queue, it is issued at once if queue is idle
+     *
+     * @param operation operation to add
+     * @return same operation
+     */
+    synchronized GattOperation enqueue(GattOperation operation) {
+        operation.mQueue = this;
+        mPending.addLast(operation);
+        if (null == mCurrent && null == mTimedOut) {
+            startNext();
+        }
+        return operation;
+    }
+
+    /**
+     * Complete current operation from a completion callback of bluetooth stack and issue next one
+     *
+     * @param type   type of completed operation
+     * @param target characteristic or descriptor of callback
+     * @param status status of callback
+     * @param value  read value, null for writes
+     */
+    synchronized void onOperationComplete(int type, Object target, int status, byte[] value) {
+        GattOperation timedOut = mTimedOut;
+        if (null != timedOut) {
+            //stack answers one operation at a time, so this can only be the late callback
+            if (timedOut.matches(type, target)) {
+                Log.w(TAG, "late completion discarded, operation " + timedOut.mSequence);
+                cancelTimeout();
+                mTimedOut = null;
+                startNext();
+            } else {
+                Log.w(TAG, "completion without matching operation, type " + type);
+            }
+            return;
+        }
+        GattOperation current = mCurrent;
+        if (null == current || !current.matches(type, target)) {
+            Log.w(TAG, "completion without matching operation, type " + type);
+            return;
+        }
+        cancelTimeout();
+        mCurrent = null;
+        current.complete(status, value);
+        startNext();
+    }
+
+    /**
+     * Remove operation if it is not issued yet
+     *
+     * @return true if operation is cancelled
+     */
+    synchronized boolean cancel(GattOperation operation) {
+        if (!mPending.remove(operation)) {
+            return false;
+        }
+        return operation.complete(GattOperation.STATUS_CANCELLED, null);
+    }
+
+    /**
+     * Complete current and waiting operations with status, used on disconnect
+     *
+     * @param status status for operations
+     */
+    synchronized void clear(int status) {
+        cancelTimeout();
+        mTimedOut = null;
+        if (null != mCurrent) {
+            mCurrent.complete(status, null);
+            mCurrent = null;
+        }
+        GattOperation operation;
+        while (null != (operation = mPending.pollFirst())) {
+            operation.complete(status, null);
+        }
+    }
+
+    /**
+     * @return number of operations waiting or in progress
+     */
+    synchronized int size() {
+        return mPending.size() + (null == mCurrent ? 0 : 1);
+    }
+
+    /**
+     * Issue next waiting operation, operations refused by stack are completed at once
+     */
+    private void startNext() {
+        GattOperation operation;
+        while (null != (operation = mPending.pollFirst())) {
+            if (operation.isDone()) {
+                continue;
+            }
+            operation.mSequence = ++mSequence;
+            if (operation.start()) {
+                mCurrent = operation;
+                scheduleTimeout(operation);
+                return;
+            }
+            Log.w(TAG, "operation not started, type " + operation.getType());
+            operation.complete(GattOperation.STATUS_NOT_STARTED, null);
+        }
+    }
+
+    /**
+     * Time out current operation, or fail the queue if late callback of timed out operation is
+     * also not received
+     */
+    void onTimeout() {
+        OnStalledListener stalledListener;
+        synchronized (this) {
+            GattOperation operation = null != mCurrent ? mCurrent : mTimedOut;
+            //runnable may be for an operation completed while it was waiting for the lock
+            if (null == operation || operation.mSequence != mTimeoutSequence
+                    || SystemClock.uptimeMillis() < mCurrentDeadline) {
+                return;
+            }
+            if (operation == mCurrent) {
+                Log.w(TAG, "operation " + operation.mSequence + " timed out, type " + operation.getType());
+                mCurrent = null;
+                operation.complete(GattOperation.STATUS_TIMEOUT, null);
+                //stack is still busy with it, wait for its late callback before next operation
+                mTimedOut = operation;
+                scheduleTimeout(operation);
+                return;
+            }
+            Log.e(TAG, "no late completion of operation " + operation.mSequence + ", failing queue");
+            clear(GattOperation.STATUS_TIMEOUT);
+            stalledListener = mStalledListener;
+        }
+        if (null != stalledListener) {
+            stalledListener.onStalled();
+        }
+    }
+
+    private void scheduleTimeout(GattOperation operation) {
+        mTimeoutSequence = operation.mSequence;
+        mCurrentDeadline = operation.getTimeoutMillis() > 0
+                ? SystemClock.uptimeMillis() + operation.getTimeoutMillis() : Long.MAX_VALUE;
+        if (null != mTimeoutHandler && operation.getTimeoutMillis() > 0) {
+            mTimeoutHandler.removeCallbacks(mTimeoutRunnable);
+            mTimeoutHandler.postDelayed(mTimeoutRunnable, operation.getTimeoutMillis());
+        }
+    }
+
+    private void cancelTimeout() {
+        if (null != mTimeoutHandler) {
+            mTimeoutHandler.removeCallbacks(mTimeoutRunnable);
+        }
+    }
+
+    /**
+     * Listener for a stalled bluetooth stack
+     */
+    interface OnStalledListener {
+        /**
+         * Called when late callback of a timed out operation is not received, queue is already
+         * cleared and connection should be dropped. Called without lock of queue
+         */
+        void onStalled();
+    }
+}
@@ -1,15 +1,30 @@
 package com.quovantis.bluetoothlibs;
 
+import android.os.Looper;
+
 import java.util.UUID;
 
 /**
  * Manager Config object
+ * <p/>
+ * Callbacks of bluetooth service like scan results, disconnects and received messages are handled
+ * on looper of {@link #setCallbackLooper(Looper)}, if it is not set then on main looper, or on a
+ * dedicated thread of {@link BluetoothManager} when {@link #setDedicatedCallbackThread(boolean)}
+ * is enabled
  */
 public final class ManagerConfig {
+    /**
+     * Default timeout of a GATT operation in milliseconds
+     */
+    public static final long DEFAULT_OPERATION_TIMEOUT = 3000;
+
     private UUID mDeviceUUID;
     private UUID mCharacteristicUUID;
     private UUID mWriteCharUUID;
     private UUID mCharConfigUUID;
+    private Looper mCallbackLooper;
+    private boolean mDedicatedCallbackThread;
+    private long mOperationTimeout = DEFAULT_OPERATION_TIMEOUT;
 
     public ManagerConfig setDeviceUUID(UUID val) {
         mDeviceUUID = val;
@@ -31,6 +46,46 @@ public final class ManagerConfig {
         return this;
     }
 
+    /**
+     * Set looper on which callbacks of bluetooth service and {@link BLECharChangeListener} are called,
+     * pass {@link Looper#getMainLooper()} for handling them on main thread
+     *
+     * @param val Looper or null for main looper or dedicated thread
+     * @return same config
+     */
+    public ManagerConfig setCallbackLooper(Looper val) {
+        mCallbackLooper = val;
+        return this;
+    }
+
+    /**
+     * Handle callbacks on a dedicated thread of {@link BluetoothManager} in place of main looper,
+     * it is used only when looper is not set by {@link #setCallbackLooper(Looper)}. Listeners
+     * should not touch views directly when it is enabled
+     *
+     * @param val true for a dedicated thread, false for main looper
+     * @return same config
+     */
+    public ManagerConfig setDedicatedCallbackThread(boolean val) {
+        mDedicatedCallbackThread = val;
+        return this;
+    }
+
+    /**
+     * Set timeout of GATT writes and reads, operation without completion from device in this time
+     * is completed with {@link GattOperation#STATUS_TIMEOUT} and next operation is issued
+     *
+     * @param val timeout in milliseconds, 0 for no timeout
+     * @return same config
+     */
+    public ManagerConfig setOperationTimeout(long val) {
+        if (val < 0) {
+            throw new IllegalArgumentException("Operation timeout can't be negative");
+        }
+        mOperationTimeout = val;
+        return this;
+    }
+
     public UUID getDeviceUUID() {
         return mDeviceUUID;
     }
@@ -47,6 +102,18 @@ public final class ManagerConfig {
         return mCharConfigUUID;
     }
 
+    public Looper getCallbackLooper() {
+        return mCallbackLooper;
+    }
+
+    public boolean isDedicatedCallbackThread() {
+        return mDedicatedCallbackThread;
+    }
+
+    public long getOperationTimeout() {
+        return mOperationTimeout;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -60,6 +127,12 @@ public final class ManagerConfig {
             return false;
         if (mWriteCharUUID != null ? !mWriteCharUUID.equals(managerConfig.mWriteCharUUID) : managerConfig.mWriteCharUUID != null)
             return false;
+        if (mCallbackLooper != managerConfig.mCallbackLooper)
+            return false;
+        if (mDedicatedCallbackThread != managerConfig.mDedicatedCallbackThread)
+            return false;
+        if (mOperationTimeout != managerConfig.mOperationTimeout)
+            return false;
         return !(mCharConfigUUID != null ? !mCharConfigUUID.equals(managerConfig.mCharConfigUUID) : managerConfig.mCharConfigUUID != null);
 
     }
@@ -70,6 +143,9 @@ public final class ManagerConfig {
         result = 31 * result + (mCharacteristicUUID != null ? mCharacteristicUUID.hashCode() : 0);
         result = 30 * result + (mWriteCharUUID != null ? mWriteCharUUID.hashCode() : 0);
         result = 29 * result + (mCharConfigUUID != null ? mCharConfigUUID.hashCode() : 0);
+        result = 31 * result + (mCallbackLooper != null ? mCallbackLooper.hashCode() : 0);
+        result = 31 * result + (mDedicatedCallbackThread ? 1 : 0);
+        result = 31 * result + (int) (mOperationTimeout ^ (mOperationTimeout >>> 32));
         return result;
     }
 }
@@ -0,0 +1,121 @@
+package com.quovantis.bluetoothlibs;
+
+import android.os.SystemClock;
+
+/**
+ * <p>
+ * Buffer holding a value received from characteristic of bluetooth device, buffers are leased
+ * from a fixed size pool of {@link BluetoothService} so streaming of notifications doesn't
+ * allocate an array per notification
+ * </p>
+ * <p>
+ * Ownership rules:
+ * <ul>
+ * <li>Buffer passed to {@link BLEBufferedCharChangeListener#onMessageReceived(ReceiveBuffer)} is
+ * owned by the listener, it must call {@link #release()} exactly once when it is done with data,
+ * usually after the decoder has consumed it</li>
+ * <li>Data of buffer must not be read or kept after {@link #release()}, buffer is reused for a
+ * later notification</li>
+ * <li>Releasing a buffer twice throws {@link IllegalStateException}</li>
+ * <li>Buffer object is reused by later leases, a receiver which keeps reference of buffer beyond
+ * the callback, like handing it to another thread, should take {@link #getLeaseGeneration()} on
+ * receive and release with {@link #release(int)}, so release of a lease which was already released
+ * throws {@link IllegalStateException} in place of releasing a later lease of the buffer</li>
+ * </ul>
+ * In debuggable builds buffers which become unreachable without release are reported in log with
+ * the place where they were leased
+ * </p>
+ */
+public final class ReceiveBuffer {
+
+    /**
+     * Pool of buffer, null for buffer allocated when pool was empty
+     */
+    final ReceiveBufferPool mPool;
+    final byte[] mData;
+    /**
+     * Incremented on every lease of the buffer
+     */
+    volatile int mGeneration;
+    int mLength;
+    long mTimestampNanos;
+    /**
+     * true while buffer is owned by the receiver
+     */
+    boolean mLeased;
+    /**
+     * Leak tracker of current lease, only in debuggable builds
+     */
+    ReceiveBufferPool.LeakTracker mLeakTracker;
+
+    ReceiveBuffer(ReceiveBufferPool pool, int capacity) {
+        mPool = pool;
+        mData = new byte[capacity];
+    }
+
+    /**
+     * Received value is from index 0 to {@link #getLength()}, rest of the array is unused
+     *
+     * @return backing array of buffer
+     */
+    public byte[] getData() {
+        return mData;
+    }
+
+    /**
+     * @return length of received value
+     */
+    public int getLength() {
+        return mLength;
+    }
+
+    /**
+     * @return {@link SystemClock#elapsedRealtimeNanos()} when value was received from bluetooth stack
+     */
+    public long getTimestampNanos() {
+        return mTimestampNanos;
+    }
+
+    /**
+     * @return generation of current lease of buffer, it is different for every lease of the buffer
+     */
+    public int getLeaseGeneration() {
+        return mGeneration;
+    }
+
+    /**
+     * Give back buffer to its pool, buffer must not be used after this call
+     *
+     * @throws IllegalStateException if buffer is already released
+     */
+    public void release() {
+        release(mGeneration);
+    }
+
+    /**
+     * Give back buffer to its pool if it is still in the lease of generation, buffer must not be used
+     * after this call
+     *
+     * @param leaseGeneration {@link #getLeaseGeneration()} taken when buffer was received
+     * @throws IllegalStateException if that lease is already released
+     */
+    public void release(int leaseGeneration) {
+        if (null != mPool) {
+            mPool.release(this, leaseGeneration);
+            return;
+        }
+        synchronized (this) {
+            checkLease(leaseGeneration);
+            mLeased = false;
+        }
+    }
+
+    /**
+     * Check that lease of generation is not released yet, caller must hold lock of owner of buffer
+     */
+    void checkLease(int leaseGeneration) {
+        if (!mLeased || mGeneration != leaseGeneration) {
+            throw new IllegalStateException("ReceiveBuffer lease " + leaseGeneration + " is already released");
+        }
+    }
+}
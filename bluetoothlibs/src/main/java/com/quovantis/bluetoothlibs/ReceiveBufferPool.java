@@ -0,0 +1,213 @@
+package com.quovantis.bluetoothlibs;
+
+import android.util.Log;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <p>
+ * Fixed size pool of {@link ReceiveBuffer}, a buffer is leased on binder thread for every
+ * characteristic notification and released by the receiver after decoding
+ * </p>
+ * <p>
+ * Buffers are sized for the negotiated ATT MTU by {@link #setBufferSize(int)}, a free buffer which
+ * is smaller than the leased value is replaced by a larger one, so pool adapts to the largest value
+ * of the device up to {@link #MAX_BUFFER_SIZE}. If all buffers are leased or a value is larger than
+ * {@link #MAX_BUFFER_SIZE} then an unpooled buffer is returned, so a slow receiver makes garbage but
+ * doesn't lose notifications
+ * </p>
+ * <p>
+ * With leak detection every lease records its stack, buffers collected without release are
+ * reported in log and replaced in pool on a later lease
+ * </p>
+ */
+final class ReceiveBufferPool {
+    private static final String TAG = "ReceiveBufferPool";
+
+    /**
+     * Maximum length of an attribute value, larger values are never pooled
+     */
+    static final int MAX_BUFFER_SIZE = 512;
+
+    /**
+     * Capacity of new buffers of pool, guarded by pool lock
+     */
+    private int mBufferSize;
+    private final ReceiveBuffer[] mFreeBuffers;
+    private int mFreeCount;
+    private final boolean mDetectLeaks;
+    private final ReferenceQueue<ReceiveBuffer> mLeakQueue;
+    /**
+     * Trackers of leased buffers, kept to make them reachable till buffer is released
+     */
+    private final Set<LeakTracker> mLeakTrackers;
+
+    /**
+     * @param bufferCount number of pooled buffers
+     * @param bufferSize  capacity of each buffer
+     * @param detectLeaks true to track leases and report leaked buffers, costs a stack trace per lease
+     */
+    ReceiveBufferPool(int bufferCount, int bufferSize, boolean detectLeaks) {
+        if (bufferCount < 1) {
+            throw new IllegalArgumentException("Buffer count can't be less than 1");
+        }
+        if (bufferSize < 1 || bufferSize > MAX_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size should be from 1 to " + MAX_BUFFER_SIZE);
+        }
+        mBufferSize = bufferSize;
+        mFreeBuffers = new ReceiveBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            mFreeBuffers[i] = new ReceiveBuffer(this, bufferSize);
+        }
+        mFreeCount = bufferCount;
+        mDetectLeaks = detectLeaks;
+        if (detectLeaks) {
+            mLeakQueue = new ReferenceQueue<ReceiveBuffer>();
+            mLeakTrackers = Collections.synchronizedSet(new HashSet<LeakTracker>());
+        } else {
+            mLeakQueue = null;
+            mLeakTrackers = null;
+        }
+    }
+
+    /**
+     * Set capacity of buffers for values of the negotiated MTU, free buffers which are smaller are
+     * replaced on their next lease
+     *
+     * @param bufferSize maximum length of value, it is capped to {@link #MAX_BUFFER_SIZE}
+     */
+    synchronized void setBufferSize(int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size can't be less than 1");
+        }
+        mBufferSize = Math.min(bufferSize, MAX_BUFFER_SIZE);
+    }
+
+    /**
+     * @return capacity of new buffers of pool
+     */
+    synchronized int getBufferSize() {
+        return mBufferSize;
+    }
+
+    /**
+     * Lease a buffer and copy value in it
+     *
+     * @param value          value received from characteristic
+     * @param timestampNanos receive time of value
+     * @return buffer owned by caller till {@link ReceiveBuffer#release()}
+     */
+    ReceiveBuffer lease(byte[] value, long timestampNanos) {
+        int length = null == value ? 0 : value.length;
+        ReceiveBuffer buffer = null;
+        if (mDetectLeaks) {
+            reclaimLeaked();
+        }
+        if (length <= MAX_BUFFER_SIZE) {
+            synchronized (this) {
+                if (mFreeCount > 0) {
+                    buffer = mFreeBuffers[--mFreeCount];
+                    mFreeBuffers[mFreeCount] = null;
+                    if (buffer.mData.length < length || buffer.mData.length < mBufferSize) {
+                        //buffer of smaller MTU or value, replaced with one which fits value and MTU
+                        mBufferSize = Math.max(mBufferSize, length);
+                        buffer = new ReceiveBuffer(this, mBufferSize);
+                    }
+                }
+            }
+        }
+        if (null == buffer) {
+            buffer = new ReceiveBuffer(null, length);
+        }
+        if (length > 0) {
+            System.arraycopy(value, 0, buffer.mData, 0, length);
+        }
+        buffer.mLength = length;
+        buffer.mTimestampNanos = timestampNanos;
+        synchronized (null != buffer.mPool ? this : buffer) {
+            buffer.mGeneration++;
+            buffer.mLeased = true;
+        }
+        if (mDetectLeaks && null != buffer.mPool) {
+            buffer.mLeakTracker = new LeakTracker(buffer, mLeakQueue);
+            mLeakTrackers.add(buffer.mLeakTracker);
+        }
+        return buffer;
+    }
+
+    /**
+     * Put buffer back in pool
+     *
+     * @param buffer          leased buffer
+     * @param leaseGeneration generation of lease which is released
+     * @throws IllegalStateException if lease of generation is already released
+     */
+    void release(ReceiveBuffer buffer, int leaseGeneration) {
+        synchronized (this) {
+            buffer.checkLease(leaseGeneration);
+            buffer.mLeased = false;
+            buffer.mLength = 0;
+            buffer.mTimestampNanos = 0;
+            if (null != buffer.mLeakTracker) {
+                mLeakTrackers.remove(buffer.mLeakTracker);
+                buffer.mLeakTracker.clear();
+                buffer.mLeakTracker = null;
+            }
+            if (mFreeCount < mFreeBuffers.length) {
+                mFreeBuffers[mFreeCount++] = buffer;
+            }
+        }
+    }
+
+    /**
+     * @return number of buffers available in pool
+     */
+    synchronized int getFreeCount() {
+        return mFreeCount;
+    }
+
+    /**
+     * Report buffers which were collected without release and replace them in pool
+     *
+     * @return number of leaked buffers found
+     */
+    int reclaimLeaked() {
+        if (!mDetectLeaks) {
+            return 0;
+        }
+        int leaked = 0;
+        LeakTracker tracker;
+        while (null != (tracker = (LeakTracker) mLeakQueue.poll())) {
+            if (!mLeakTrackers.remove(tracker)) {
+                continue;
+            }
+            leaked++;
+            Log.e(TAG, "ReceiveBuffer was not released before it was garbage collected", tracker.mLeaseSite);
+            synchronized (this) {
+                if (mFreeCount < mFreeBuffers.length) {
+                    mFreeBuffers[mFreeCount++] = new ReceiveBuffer(this, mBufferSize);
+                }
+            }
+        }
+        return leaked;
+    }
+
+    /**
+     * Reference enqueued when a leased buffer becomes unreachable
+     */
+    static final class LeakTracker extends PhantomReference<ReceiveBuffer> {
+        /**
+         * Stack of the lease
+         */
+        final Throwable mLeaseSite;
+
+        LeakTracker(ReceiveBuffer buffer, ReferenceQueue<ReceiveBuffer> queue) {
+            super(buffer, queue);
+            mLeaseSite = new Throwable("ReceiveBuffer leased here");
+        }
+    }
+}
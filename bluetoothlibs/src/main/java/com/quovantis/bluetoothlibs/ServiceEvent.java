@@ -0,0 +1,101 @@
+package com.quovantis.bluetoothlibs;
+
+import android.bluetooth.BluetoothDevice;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Reusable record of a callback of {@link BluetoothService}, it is sent in
+ * {@link android.os.Message#obj} to the handler of {@link BluetoothManager} in place of a
+ * {@link android.os.Bundle}, so there is no bundle allocation and no key lookup per message
+ * </p>
+ * <p>
+ * Records are kept in a small pool, use {@link #obtain()} to get a record and {@link #recycle()}
+ * after the record is handled
+ * </p>
+ */
+final class ServiceEvent {
+
+    /**
+     * Maximum number of records kept in pool
+     */
+    private static final int MAX_POOL_SIZE = 16;
+
+    private static final Object sPoolSync = new Object();
+    private static ServiceEvent sPool;
+    private static int sPoolSize = 0;
+
+    /**
+     * Next record in the pool
+     */
+    private ServiceEvent mNext;
+    /**
+     * Leased buffer of received message for {@link BluetoothService#DATA_WHAT}, the handler
+     * takes ownership of it
+     */
+    ReceiveBuffer mBuffer;
+    /**
+     * Lease generation of {@link #mBuffer} when it was handed to handler
+     */
+    int mBufferGeneration;
+    /**
+     * Found device for {@link BluetoothService#DEVICE_WHAT}
+     */
+    BluetoothDevice mDevice;
+    int mRssi;
+    /**
+     * Advertised service UUIDs of found device
+     */
+    List<UUID> mServiceUUIDs;
+    /**
+     * Device address for {@link BluetoothService#ERROR_WHAT}
+     */
+    String mAddress;
+    /**
+     * Error type of {@link BluetoothConstants} for {@link BluetoothService#ERROR_WHAT}
+     */
+    int mError;
+
+    private ServiceEvent() {
+    }
+
+    /**
+     * Get a record from pool or create new one if pool is empty
+     *
+     * @return ServiceEvent
+     */
+    static ServiceEvent obtain() {
+        synchronized (sPoolSync) {
+            if (sPool != null) {
+                ServiceEvent event = sPool;
+                sPool = event.mNext;
+                event.mNext = null;
+                sPoolSize--;
+                return event;
+            }
+        }
+        return new ServiceEvent();
+    }
+
+    /**
+     * Clear the record and put it back in pool
+     */
+    void recycle() {
+        mBuffer = null;
+        mBufferGeneration = 0;
+        mDevice = null;
+        mRssi = 0;
+        mServiceUUIDs = null;
+        mAddress = null;
+        mError = 0;
+        synchronized (sPoolSync) {
+            if (sPoolSize < MAX_POOL_SIZE) {
+                mNext = sPool;
+                sPool = this;
+                sPoolSize++;
+            }
+        }
+    }
+}
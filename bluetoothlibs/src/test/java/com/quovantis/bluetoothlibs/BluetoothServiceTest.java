@@ -0,0 +1,47 @@
+package com.quovantis.bluetoothlibs;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class BluetoothServiceTest extends TestCase {
+
+    @Test
+    public void testParseServiceUUIDs() throws Exception {
+        byte[] scanRecord = {
+                //flags
+                0x02, 0x01, 0x06,
+                //complete list of 16 bit UUIDs, 0x180D and 0x1809
+                0x05, 0x03, 0x0D, 0x18, 0x09, 0x18,
+                //complete list of 128 bit UUIDs
+                0x11, 0x07, (byte) 0xFB, 0x34, (byte) 0x9B, 0x5F, (byte) 0x80, 0x00, 0x00, (byte) 0x80,
+                0x00, 0x10, 0x00, 0x00, (byte) 0xF0, (byte) 0xFF, 0x00, 0x00,
+                //end of data and padding
+                0x00, 0x00, 0x00};
+
+        List<UUID> uuids = BluetoothService.parseServiceUUIDs(scanRecord);
+
+        Assert.assertEquals(Arrays.asList(UUID.fromString("0000180d-0000-1000-8000-00805f9b34fb"),
+                UUID.fromString("00001809-0000-1000-8000-00805f9b34fb"),
+                UUID.fromString("0000fff0-0000-1000-8000-00805f9b34fb")), uuids);
+    }
+
+    @Test
+    public void testParseTruncatedScanRecord() throws Exception {
+        //length of second structure is more than remaining bytes
+        byte[] scanRecord = {0x03, 0x03, 0x0D, 0x18, 0x11, 0x07, 0x00};
+
+        Assert.assertEquals(Arrays.asList(UUID.fromString("0000180d-0000-1000-8000-00805f9b34fb")),
+                BluetoothService.parseServiceUUIDs(scanRecord));
+        Assert.assertTrue(BluetoothService.parseServiceUUIDs(new byte[0]).isEmpty());
+    }
+}
@@ -0,0 +1,153 @@
+package com.quovantis.bluetoothlibs;
+
+import android.bluetooth.BluetoothGatt;
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class GattOperationQueueTest extends TestCase {
+
+    @Test
+    public void testFailedOperationIsDone() throws Exception {
+        GattOperation operation = GattOperation.failed(GattOperation.TYPE_WRITE_CHARACTERISTIC,
+                GattOperation.STATUS_NOT_STARTED);
+
+        Assert.assertTrue(operation.isDone());
+        Assert.assertFalse(operation.isSuccess());
+        Assert.assertFalse(operation.cancel(false));
+        Assert.assertEquals(GattOperation.STATUS_NOT_STARTED, operation.get().intValue());
+    }
+
+    @Test
+    public void testOperationCompletesOnce() throws Exception {
+        GattOperation operation = GattOperation.readCharacteristic(null, null, 0);
+        Assert.assertEquals(GattOperation.STATUS_PENDING, operation.getStatus());
+
+        Assert.assertTrue(operation.complete(BluetoothGatt.GATT_SUCCESS, new byte[]{1, 2}));
+        Assert.assertFalse(operation.complete(GattOperation.STATUS_TIMEOUT, null));
+
+        Assert.assertTrue(operation.isSuccess());
+        Assert.assertEquals(BluetoothGatt.GATT_SUCCESS, operation.get(1, TimeUnit.SECONDS).intValue());
+        Assert.assertArrayEquals(new byte[]{1, 2}, operation.getValue());
+    }
+
+    @Test
+    public void testGetTimesOutWhilePending() throws Exception {
+        GattOperation operation = GattOperation.readCharacteristic(null, null, 0);
+        try {
+            operation.get(10, TimeUnit.MILLISECONDS);
+            fail("Pending operation should time out");
+        } catch (TimeoutException e) {
+            //expected
+        }
+        Assert.assertFalse(operation.isDone());
+    }
+
+    @Test
+    public void testRefusedOperationsDoNotBlockQueue() throws Exception {
+        GattOperationQueue queue = new GattOperationQueue();
+        GattOperation first = queue.enqueue(GattOperation.writeCharacteristic(null, null, new byte[]{1}, 1000));
+        GattOperation second = queue.enqueue(GattOperation.readCharacteristic(null, null, 1000));
+
+        Assert.assertEquals(GattOperation.STATUS_NOT_STARTED, first.getStatus());
+        Assert.assertEquals(GattOperation.STATUS_NOT_STARTED, second.getStatus());
+        Assert.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testCompletionWithoutOperationIsIgnored() throws Exception {
+        GattOperationQueue queue = new GattOperationQueue();
+        queue.onOperationComplete(GattOperation.TYPE_WRITE_CHARACTERISTIC, new Object(), BluetoothGatt.GATT_SUCCESS, null);
+        Assert.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testLateCallbackOfTimedOutOperationIsDiscarded() throws Exception {
+        GattOperationQueue queue = new GattOperationQueue();
+        Object target = new Object();
+        StartedOperation first = new StartedOperation(target, 1);
+        queue.enqueue(first);
+        StartedOperation second = new StartedOperation(target, 1000);
+        queue.enqueue(second);
+        Thread.sleep(5);
+        queue.onTimeout();
+
+        Assert.assertEquals(GattOperation.STATUS_TIMEOUT, first.getStatus());
+        //next operation is not issued while stack is still busy with timed out one
+        Assert.assertEquals(0, second.mStarts);
+
+        queue.onOperationComplete(GattOperation.TYPE_WRITE_CHARACTERISTIC, target, BluetoothGatt.GATT_SUCCESS, null);
+        Assert.assertEquals(GattOperation.STATUS_PENDING, second.getStatus());
+        Assert.assertEquals(1, second.mStarts);
+
+        queue.onOperationComplete(GattOperation.TYPE_WRITE_CHARACTERISTIC, target, BluetoothGatt.GATT_SUCCESS, null);
+        Assert.assertTrue(second.isSuccess());
+        Assert.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testOtherCallbackDoesNotEndWaitForLateCallback() throws Exception {
+        GattOperationQueue queue = new GattOperationQueue();
+        Object target = new Object();
+        queue.enqueue(new StartedOperation(target, 1));
+        StartedOperation second = new StartedOperation(target, 1000);
+        queue.enqueue(second);
+        Thread.sleep(5);
+        queue.onTimeout();
+
+        queue.onOperationComplete(GattOperation.TYPE_READ_CHARACTERISTIC, target, BluetoothGatt.GATT_SUCCESS, null);
+        Assert.assertEquals(0, second.mStarts);
+        Assert.assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testMissingLateCallbackFailsQueue() throws Exception {
+        GattOperationQueue queue = new GattOperationQueue();
+        final AtomicInteger stalls = new AtomicInteger();
+        queue.setOnStalledListener(new GattOperationQueue.OnStalledListener() {
+            @Override
+            public void onStalled() {
+                stalls.incrementAndGet();
+            }
+        });
+        Object target = new Object();
+        queue.enqueue(new StartedOperation(target, 1));
+        StartedOperation second = new StartedOperation(target, 1000);
+        queue.enqueue(second);
+        Thread.sleep(5);
+        queue.onTimeout();
+        Thread.sleep(5);
+        queue.onTimeout();
+
+        Assert.assertEquals(GattOperation.STATUS_TIMEOUT, second.getStatus());
+        Assert.assertEquals(0, second.mStarts);
+        Assert.assertEquals(1, stalls.get());
+        Assert.assertEquals(0, queue.size());
+    }
+
+    /**
+     * Write operation which is accepted by stack without a connected device
+     */
+    private static final class StartedOperation extends GattOperation {
+        int mStarts;
+
+        StartedOperation(Object target, long timeoutMillis) {
+            super(TYPE_WRITE_CHARACTERISTIC, null, target, null, timeoutMillis);
+        }
+
+        @Override
+        boolean start() {
+            mStarts++;
+            return true;
+        }
+    }
+}
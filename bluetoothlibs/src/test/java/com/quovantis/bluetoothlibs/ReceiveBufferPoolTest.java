@@ -0,0 +1,135 @@
+package com.quovantis.bluetoothlibs;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class ReceiveBufferPoolTest extends TestCase {
+
+    @Test
+    public void testLeaseCopiesValue() throws Exception {
+        ReceiveBufferPool pool = new ReceiveBufferPool(2, 20, false);
+        byte[] value = {(byte) 0xFA, 0x10, 0x08};
+
+        ReceiveBuffer buffer = pool.lease(value, 42);
+        value[0] = 0;
+
+        Assert.assertEquals(3, buffer.getLength());
+        Assert.assertEquals((byte) 0xFA, buffer.getData()[0]);
+        Assert.assertEquals(0x08, buffer.getData()[2]);
+        Assert.assertEquals(42, buffer.getTimestampNanos());
+        Assert.assertEquals(1, pool.getFreeCount());
+    }
+
+    @Test
+    public void testReleasedBufferIsReused() throws Exception {
+        ReceiveBufferPool pool = new ReceiveBufferPool(1, 20, false);
+        ReceiveBuffer first = pool.lease(new byte[]{1, 2}, 1);
+        first.release();
+        Assert.assertEquals(1, pool.getFreeCount());
+
+        ReceiveBuffer second = pool.lease(new byte[]{3}, 2);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, second.getLength());
+        Assert.assertEquals(3, second.getData()[0]);
+    }
+
+    @Test
+    public void testDoubleReleaseThrows() throws Exception {
+        ReceiveBufferPool pool = new ReceiveBufferPool(1, 20, true);
+        ReceiveBuffer buffer = pool.lease(new byte[]{1}, 0);
+        buffer.release();
+        try {
+            buffer.release();
+            fail("Second release should throw");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        Assert.assertEquals(1, pool.getFreeCount());
+    }
+
+    @Test
+    public void testExhaustedPoolReturnsUnpooledBuffer() throws Exception {
+        ReceiveBufferPool pool = new ReceiveBufferPool(1, 4, false);
+        ReceiveBuffer pooled = pool.lease(new byte[]{1}, 0);
+        ReceiveBuffer extra = pool.lease(new byte[]{2}, 0);
+        ReceiveBuffer large = pool.lease(new byte[]{1, 2, 3, 4, 5, 6}, 0);
+
+        Assert.assertNotSame(pooled, extra);
+        Assert.assertEquals(6, large.getLength());
+        Assert.assertEquals(6, large.getData()[5]);
+        extra.release();
+        large.release();
+        Assert.assertEquals(0, pool.getFreeCount());
+        pooled.release();
+        Assert.assertEquals(1, pool.getFreeCount());
+    }
+
+    @Test
+    public void testReleasedBuffersAreNotReportedAsLeaks() throws Exception {
+        ReceiveBufferPool pool = new ReceiveBufferPool(2, 20, true);
+        pool.lease(new byte[]{1}, 0).release();
+        pool.lease(new byte[]{2}, 0).release();
+        System.gc();
+        Assert.assertEquals(0, pool.reclaimLeaked());
+        Assert.assertEquals(2, pool.getFreeCount());
+    }
+
+    @Test
+    public void testStaleReleaseDoesNotReleaseLaterLease() throws Exception {
+        ReceiveBufferPool pool = new ReceiveBufferPool(1, 20, false);
+        ReceiveBuffer buffer = pool.lease(new byte[]{1}, 0);
+        int staleGeneration = buffer.getLeaseGeneration();
+        buffer.release(staleGeneration);
+
+        ReceiveBuffer reused = pool.lease(new byte[]{2}, 0);
+        Assert.assertSame(buffer, reused);
+        try {
+            buffer.release(staleGeneration);
+            fail("Release of an old lease should throw");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        //later lease is still owned by its receiver
+        Assert.assertEquals(0, pool.getFreeCount());
+        Assert.assertEquals(2, reused.getData()[0]);
+        reused.release(reused.getLeaseGeneration());
+        Assert.assertEquals(1, pool.getFreeCount());
+    }
+
+    @Test
+    public void testLargerValueGrowsPooledBuffer() throws Exception {
+        ReceiveBufferPool pool = new ReceiveBufferPool(1, 4, false);
+        ReceiveBuffer large = pool.lease(new byte[]{1, 2, 3, 4, 5, 6}, 0);
+        Assert.assertSame(pool, large.mPool);
+        Assert.assertEquals(6, pool.getBufferSize());
+        large.release();
+
+        ReceiveBuffer next = pool.lease(new byte[]{1, 2, 3, 4, 5, 6}, 0);
+        Assert.assertSame(large, next);
+    }
+
+    @Test
+    public void testBufferSizeFollowsMtu() throws Exception {
+        ReceiveBufferPool pool = new ReceiveBufferPool(2, 20, false);
+        pool.setBufferSize(244);
+
+        ReceiveBuffer buffer = pool.lease(new byte[]{1}, 0);
+        Assert.assertEquals(244, buffer.getData().length);
+
+        pool.setBufferSize(1000);
+        Assert.assertEquals(ReceiveBufferPool.MAX_BUFFER_SIZE, pool.getBufferSize());
+        ReceiveBuffer tooLarge = pool.lease(new byte[ReceiveBufferPool.MAX_BUFFER_SIZE + 1], 0);
+        Assert.assertNull(tooLarge.mPool);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBufferSize() throws Exception {
+        new ReceiveBufferPool(1, 0, false);
+    }
+}
@@ -0,0 +1,323 @@
+package com.quovantis.common.event;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Listeners of an {@link EventSlot} which are registered with same {@link DeliveryTarget}.
+ * One broadcast will make only one post on the target of the group which will fire event
+ * on all listeners of the group
+ * </p>
+ * <p>
+ * Group can have a bounded {@link Mailbox}, such group is having only one listener and events
+ * are queued in mailbox and drained on the target instead of posting every event
+ * </p>
+ * <p>
+ * Listeners are kept in copy on write array same as {@link EventSlot}, group is only modified
+ * while holding the monitor of its slot
+ * </p>
+ * <p>
+ * Conflated dispatch takes its data and listeners while holding the monitor of its slot, so a sticky
+ * replay to a new listener can tell whether the pending dispatch will also deliver to that listener
+ * </p>
+ */
+final class DeliveryGroup {
+
+    /**
+     * Shared empty listeners array for the group which does not have any listener
+     */
+    private static final EventManager.EventReceivedListener[] EMPTY_LISTENERS
+            = new EventManager.EventReceivedListener[0];
+
+    /**
+     * Marker for no pending data in conflating group, as null is a valid event data
+     */
+    private static final Object NO_DATA = new Object();
+
+    /**
+     * Maximum time a broadcasting thread is blocked by a full mailbox with
+     * {@link OverflowPolicy#BLOCK_PRODUCER}, new event is dropped after this
+     */
+    static final long BLOCK_TIMEOUT_MILLIS = 1000;
+
+    private final DeliveryTarget mTarget;
+    /**
+     * Monitor of the slot of the group
+     */
+    private final Object mLock;
+    /**
+     * Metrics of the slot of the group
+     */
+    private final EventMetrics mMetrics;
+    /**
+     * Bounded mailbox of the group, null if pending events are not bounded
+     */
+    private final Mailbox mMailbox;
+    private final int mMailboxCapacity;
+
+    /**
+     * Current published snapshot of listeners, never modified after publish
+     */
+    private volatile EventManager.EventReceivedListener[] mListeners = EMPTY_LISTENERS;
+
+    /**
+     * Latest data for conflating slot which is not delivered yet
+     */
+    private final AtomicReference<Object> mLatestData = new AtomicReference<Object>(NO_DATA);
+    /**
+     * true if dispatch of conflating slot is posted and not run yet
+     */
+    private final AtomicBoolean mDispatchPending = new AtomicBoolean(false);
+    /**
+     * Time of {@link EventMetrics#now()} when conflated dispatch was posted, 0 if metrics was disabled
+     */
+    private long mConflatedEnqueueTime;
+    /**
+     * Reusable dispatch for conflating slot, there is at most one pending at a time
+     */
+    private final Runnable mConflatedDispatch = new Runnable() {
+        @Override
+        public void run() {
+            long enqueueTime;
+            Object data;
+            EventManager.EventReceivedListener[] listeners;
+            synchronized (mLock) {
+                //clear pending flag before taking data so a broadcast after this will be posted again
+                enqueueTime = mConflatedEnqueueTime;
+                mDispatchPending.set(false);
+                data = mLatestData.getAndSet(NO_DATA);
+                listeners = mListeners;
+            }
+            if (enqueueTime != 0) {
+                mMetrics.onDequeue(enqueueTime);
+            }
+            if (data == NO_DATA) {
+                return;
+            }
+            EventMetrics metrics = EventMetrics.isEnabled() ? mMetrics : null;
+            for (int i = 0; i < listeners.length; i++) {
+                DispatchRecord.deliver(listeners[i], data, metrics);
+            }
+        }
+    };
+
+    /**
+     * Reusable drain for group with mailbox, there is at most one pending at a time
+     */
+    private final Runnable mMailboxDrain = new Runnable() {
+        @Override
+        public void run() {
+            //deliver at most one mailbox full of events at a time so target thread is not starved
+            for (int i = mMailboxCapacity; i > 0; i--) {
+                Object data = mMailbox.poll();
+                if (data == Mailbox.EMPTY) {
+                    return;
+                }
+                EventMetrics metrics = EventMetrics.isEnabled() ? mMetrics : null;
+                EventManager.EventReceivedListener[] listeners = mListeners;
+                for (int j = 0; j < listeners.length; j++) {
+                    DispatchRecord.deliver(listeners[j], data, metrics);
+                }
+            }
+            mTarget.execute(this);
+        }
+    };
+
+    /**
+     * Create group
+     *
+     * @param target          target on which event will be delivered
+     * @param mailboxCapacity capacity of mailbox, 0 if pending events are not bounded
+     * @param policy          policy of mailbox
+     * @param metrics         metrics of the slot of the group
+     * @param lock            monitor of the slot of the group
+     */
+    DeliveryGroup(DeliveryTarget target, int mailboxCapacity, OverflowPolicy policy, EventMetrics metrics,
+            Object lock) {
+        mTarget = target;
+        mLock = lock;
+        mMetrics = metrics;
+        mMailboxCapacity = mailboxCapacity;
+        mMailbox = mailboxCapacity > 0 ? new Mailbox(mailboxCapacity, policy, metrics, BLOCK_TIMEOUT_MILLIS) : null;
+        if (null != mMailbox) {
+            target.attach(mMailbox);
+        }
+    }
+
+    /**
+     * Close mailbox of the group when group is removed from its slot, caller must hold the slot monitor
+     */
+    void detach() {
+        if (null != mMailbox) {
+            mTarget.detach(mMailbox);
+            mMailbox.close();
+        }
+    }
+
+    DeliveryTarget getTarget() {
+        return mTarget;
+    }
+
+    /**
+     * @return true if group is having its own mailbox
+     */
+    boolean hasMailbox() {
+        return null != mMailbox;
+    }
+
+    /**
+     * @return number of events dropped by mailbox of group
+     */
+    long getDroppedCount() {
+        return null != mMailbox ? mMailbox.getDroppedCount() : 0;
+    }
+
+    EventManager.EventReceivedListener[] getListeners() {
+        return mListeners;
+    }
+
+    /**
+     * @param conflating true if slot of the group is conflating
+     * @return true if dispatch of the group only posts on its target, it never calls a listener
+     * or waits for mailbox space on the calling thread
+     */
+    boolean isPostOnly(boolean conflating) {
+        return !mTarget.isSynchronous() && (conflating || null == mMailbox);
+    }
+
+    /**
+     * Fire event data on listeners of the group through its target
+     *
+     * @param data       event data
+     * @param conflating true if only latest data need to be delivered
+     */
+    void dispatch(Object data, boolean conflating) {
+        dispatch(data, conflating, mListeners);
+    }
+
+    /**
+     * Fire event data on listeners of the group through its target
+     *
+     * @param data       event data
+     * @param conflating true if only latest data need to be delivered
+     * @param listeners  snapshot of listeners of the group taken by the caller
+     */
+    void dispatch(Object data, boolean conflating, EventManager.EventReceivedListener[] listeners) {
+        if (listeners.length == 0) {
+            return;
+        }
+        EventMetrics metrics = EventMetrics.isEnabled() ? mMetrics : null;
+        if (mTarget.isSynchronous()) {
+            for (int i = 0; i < listeners.length; i++) {
+                DispatchRecord.deliver(listeners[i], data, metrics);
+            }
+            return;
+        }
+        if (conflating) {
+            mLatestData.set(data);
+            if (mDispatchPending.compareAndSet(false, true)) {
+                if (null != metrics) {
+                    metrics.onEnqueue();
+                    mConflatedEnqueueTime = EventMetrics.now();
+                } else {
+                    mConflatedEnqueueTime = 0;
+                }
+                mTarget.execute(mConflatedDispatch);
+            }
+            return;
+        }
+        if (null != mMailbox) {
+            if (mMailbox.offer(data, !mTarget.isCurrentThread(), null != metrics ? EventMetrics.now() : 0)) {
+                mTarget.execute(mMailboxDrain);
+            }
+            return;
+        }
+        mTarget.execute(DispatchRecord.obtain(listeners, data, metrics));
+    }
+
+    /**
+     * Deliver sticky data to a listener just added in the group, caller must hold the slot monitor.
+     * It is only for groups with asynchronous target, as it only posts on the target.
+     * If a conflated dispatch is pending then it will deliver the latest data to the new listener as well,
+     * so nothing is posted for the listener
+     *
+     * @param listener   listener added in the group
+     * @param data       sticky data of the slot
+     * @param conflating true if only latest data need to be delivered
+     */
+    void replay(EventManager.EventReceivedListener listener, Object data, boolean conflating) {
+        if (conflating && mDispatchPending.get()) {
+            return;
+        }
+        if (conflating || null == mMailbox) {
+            mTarget.execute(DispatchRecord.obtain(new EventManager.EventReceivedListener[]{listener}, data, null));
+            return;
+        }
+        if (mMailbox.offer(data, false, 0)) {
+            mTarget.execute(mMailboxDrain);
+        }
+    }
+
+    /**
+     * Add listener in group, caller must hold the slot monitor
+     *
+     * @param listener listener which need to add
+     */
+    void add(EventManager.EventReceivedListener listener) {
+        EventManager.EventReceivedListener[] listeners = mListeners;
+        EventManager.EventReceivedListener[] newListeners
+                = new EventManager.EventReceivedListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+        newListeners[listeners.length] = listener;
+        mListeners = newListeners;
+    }
+
+    /**
+     * Remove listener from group, caller must hold the slot monitor
+     *
+     * @param listener listener which need to remove
+     * @return removed listener or {@link WeakListener} as it was registered, null if listener was not found
+     */
+    EventManager.EventReceivedListener remove(EventManager.EventReceivedListener listener) {
+        EventManager.EventReceivedListener[] listeners = mListeners;
+        int index = indexOf(listener);
+        if (index < 0) {
+            return null;
+        }
+        if (listeners.length == 1) {
+            mListeners = EMPTY_LISTENERS;
+            return listeners[0];
+        }
+        EventManager.EventReceivedListener[] newListeners
+                = new EventManager.EventReceivedListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, newListeners, 0, index);
+        System.arraycopy(listeners, index + 1, newListeners, index, listeners.length - index - 1);
+        mListeners = newListeners;
+        return listeners[index];
+    }
+
+    /**
+     * Find index of listener in group, for weak subscription actual listener is matched
+     *
+     * @param listener listener or {@link WeakListener} registered in the group
+     * @return index of listener or -1 if not found
+     */
+    int indexOf(EventManager.EventReceivedListener listener) {
+        EventManager.EventReceivedListener[] listeners = mListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            EventManager.EventReceivedListener registered = listeners[i];
+            if (registered == listener || registered.equals(listener)) {
+                return i;
+            }
+            if (registered instanceof WeakListener && ((WeakListener) registered).get() == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean isEmpty() {
+        return mListeners.length == 0;
+    }
+}
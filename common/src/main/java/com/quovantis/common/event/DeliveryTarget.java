@@ -0,0 +1,221 @@
+package com.quovantis.common.event;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.ArrayList;
+
+/**
+ * <p>
+ * Delivery target decides on which thread {@link EventManager} will fire event on a
+ * registered {@link EventManager.EventReceivedListener}
+ * </p>
+ * <ul>
+ * <li>{@link #MAIN_THREAD} deliver event on main looper, it is the default target</li>
+ * <li>{@link #CALLER_THREAD} deliver event synchronously on the thread which broadcast the event</li>
+ * <li>{@link #background()} deliver event on a background looper shared by all background listeners</li>
+ * <li>{@link #forLooper(Looper)} deliver event on provided looper</li>
+ * <li>{@link #newHandlerThread(String)} deliver event on a new dedicated {@link HandlerThread}</li>
+ * </ul>
+ * <p>
+ * Events of a listener are always delivered in broadcast order, as every target except
+ * {@link #CALLER_THREAD} is backed by a single looper
+ * </p>
+ *
+ * @see EventManager#registerForEvent(String, EventManager.EventReceivedListener, DeliveryTarget)
+ */
+public abstract class DeliveryTarget {
+
+    /**
+     * Deliver event on main looper
+     */
+    public static final DeliveryTarget MAIN_THREAD = new HandlerTarget(new Handler(Looper.getMainLooper()), null);
+
+    /**
+     * Deliver event synchronously on the broadcasting thread, listener should be cheap and thread safe
+     */
+    public static final DeliveryTarget CALLER_THREAD = new DeliveryTarget() {
+        @Override
+        void execute(Runnable runnable) {
+            runnable.run();
+        }
+
+        @Override
+        boolean isSynchronous() {
+            return true;
+        }
+
+        @Override
+        boolean isCurrentThread() {
+            return true;
+        }
+    };
+
+    /**
+     * Mailboxes of subscribers which are delivered on this target
+     */
+    private final ArrayList<Mailbox> mMailboxes = new ArrayList<Mailbox>();
+    private boolean mReleased;
+
+    DeliveryTarget() {
+    }
+
+    /**
+     * Get shared background target, background looper is created on first use
+     *
+     * @return DeliveryTarget for background looper
+     */
+    public static DeliveryTarget background() {
+        return BackgroundHolder.TARGET;
+    }
+
+    /**
+     * Create target which will deliver event on provided looper
+     *
+     * @param looper Looper
+     * @return DeliveryTarget for the looper
+     */
+    public static DeliveryTarget forLooper(Looper looper) {
+        if (looper == null) {
+            throw new IllegalArgumentException("Looper can't be null for delivery target");
+        }
+        return new HandlerTarget(new Handler(looper), null);
+    }
+
+    /**
+     * Create target with a new dedicated {@link HandlerThread}, call {@link #release()} when
+     * target is not needed anymore to quit the thread
+     *
+     * @param name name of the thread
+     * @return DeliveryTarget for new thread
+     */
+    public static DeliveryTarget newHandlerThread(String name) {
+        HandlerThread thread = new HandlerThread(name, Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        return new HandlerTarget(new Handler(thread.getLooper()), thread);
+    }
+
+    /**
+     * Release resources of the target, only target created with {@link #newHandlerThread(String)}
+     * is having resources to release. Broadcasting threads blocked on a full mailbox of a subscriber
+     * of released target are woken and their events are dropped, as mailbox will not be drained anymore
+     */
+    public void release() {
+        Mailbox[] mailboxes;
+        synchronized (mMailboxes) {
+            if (mReleased) {
+                return;
+            }
+            mReleased = true;
+            mailboxes = mMailboxes.toArray(new Mailbox[mMailboxes.size()]);
+            mMailboxes.clear();
+        }
+        for (Mailbox mailbox : mailboxes) {
+            mailbox.close();
+        }
+        onRelease();
+    }
+
+    /**
+     * Called once from {@link #release()} after mailboxes of the target are closed
+     */
+    void onRelease() {
+    }
+
+    /**
+     * Keep mailbox which is drained on this target so it can be closed on release,
+     * mailbox is closed at once if target is already released
+     *
+     * @param mailbox Mailbox
+     */
+    void attach(Mailbox mailbox) {
+        synchronized (mMailboxes) {
+            if (!mReleased) {
+                mMailboxes.add(mailbox);
+                return;
+            }
+        }
+        mailbox.close();
+    }
+
+    /**
+     * Remove mailbox added by {@link #attach(Mailbox)}
+     *
+     * @param mailbox Mailbox
+     */
+    void detach(Mailbox mailbox) {
+        synchronized (mMailboxes) {
+            mMailboxes.remove(mailbox);
+        }
+    }
+
+    /**
+     * Execute runnable on target thread
+     *
+     * @param runnable Runnable
+     */
+    abstract void execute(Runnable runnable);
+
+    /**
+     * @return true if {@link #execute(Runnable)} will run on caller thread before returning
+     */
+    boolean isSynchronous() {
+        return false;
+    }
+
+    /**
+     * @return true if calling thread is the thread on which target execute
+     */
+    abstract boolean isCurrentThread();
+
+    /**
+     * Target backed by a handler
+     */
+    private static final class HandlerTarget extends DeliveryTarget {
+        private final Handler mHandler;
+        private final HandlerThread mThread;
+
+        HandlerTarget(Handler handler, HandlerThread thread) {
+            mHandler = handler;
+            mThread = thread;
+        }
+
+        @Override
+        void execute(Runnable runnable) {
+            mHandler.post(runnable);
+        }
+
+        @Override
+        boolean isCurrentThread() {
+            return mHandler.getLooper() == Looper.myLooper();
+        }
+
+        @Override
+        public void release() {
+            //shared targets are never released
+            if (null != mThread) {
+                super.release();
+            }
+        }
+
+        @Override
+        void onRelease() {
+            mThread.quit();
+        }
+    }
+
+    /**
+     * Lazy holder of shared background target
+     */
+    private static final class BackgroundHolder {
+        private static final DeliveryTarget TARGET;
+
+        static {
+            HandlerThread thread = new HandlerThread("EventManager-background", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            TARGET = new HandlerTarget(new Handler(thread.getLooper()), null);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.quovantis.common.event;
+
+import android.util.Log;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * Reusable record for delivering one broadcast of {@link EventManager} to all listeners
+ * of the action with a single post on the handler.
+ * </p>
+ * <p>
+ * Records are kept in a small pool, use {@link #obtain(EventManager.EventReceivedListener[], Object, EventMetrics)}
+ * to get a record and it will be recycled itself after {@link #run()}, so a record must not be
+ * posted more than once
+ * </p>
+ */
+final class DispatchRecord implements Runnable {
+
+    private static final String TAG = "EventManager";
+    /**
+     * Maximum number of records kept in pool
+     */
+    private static final int MAX_POOL_SIZE = 20;
+
+    /**
+     * Type of event data accepted by listener class, resolved once per class
+     */
+    private static final ConcurrentHashMap<Class<?>, Class<?>> sDataTypes = new ConcurrentHashMap<Class<?>, Class<?>>();
+
+    private static final Object sPoolSync = new Object();
+    private static DispatchRecord sPool;
+    private static int sPoolSize = 0;
+
+    /**
+     * Next record in the pool
+     */
+    private DispatchRecord mNext;
+    /**
+     * Snapshot of listeners at the time of broadcast
+     */
+    private EventManager.EventReceivedListener[] mListeners;
+    /**
+     * Event data
+     */
+    private Object mData;
+    /**
+     * Metrics of the slot if metrics were enabled at the time of broadcast else null
+     */
+    private EventMetrics mMetrics;
+    /**
+     * Time of {@link EventMetrics#now()} at the time of broadcast
+     */
+    private long mEnqueueTime;
+
+    private DispatchRecord() {
+    }
+
+    /**
+     * Get a record from pool or create new one if pool is empty
+     *
+     * @param listeners listeners snapshot on which event need to fire
+     * @param data      event data
+     * @param metrics   metrics of the slot if metrics is enabled else null
+     * @return DispatchRecord
+     */
+    static DispatchRecord obtain(EventManager.EventReceivedListener[] listeners, Object data, EventMetrics metrics) {
+        DispatchRecord record = null;
+        synchronized (sPoolSync) {
+            if (sPool != null) {
+                record = sPool;
+                sPool = record.mNext;
+                record.mNext = null;
+                sPoolSize--;
+            }
+        }
+        if (null == record) {
+            record = new DispatchRecord();
+        }
+        record.mListeners = listeners;
+        record.mData = data;
+        record.mMetrics = metrics;
+        if (null != metrics) {
+            metrics.onEnqueue();
+            record.mEnqueueTime = EventMetrics.now();
+        }
+        return record;
+    }
+
+    @Override
+    public void run() {
+        EventManager.EventReceivedListener[] listeners = mListeners;
+        Object data = mData;
+        EventMetrics metrics = mMetrics;
+        if (null != metrics) {
+            metrics.onDequeue(mEnqueueTime);
+        }
+        recycle();
+        for (int i = 0; i < listeners.length; i++) {
+            deliver(listeners[i], data, metrics);
+        }
+    }
+
+    /**
+     * Fire event data on listener and record its execution time in metrics
+     *
+     * @param listener listener
+     * @param data     event data
+     * @param metrics  metrics of the slot or null if execution time need not to be recorded
+     */
+    static void deliver(EventManager.EventReceivedListener listener, Object data, EventMetrics metrics) {
+        if (null == metrics) {
+            deliver(listener, data);
+            return;
+        }
+        long start = EventMetrics.now();
+        deliver(listener, data);
+        metrics.onExecuted(listener, EventMetrics.now() - start);
+    }
+
+    /**
+     * Fire event data on listener, if data type is not matched with listener
+     * then listener will be notified with null data
+     * <p>
+     * Type is checked before calling the listener, so an exception thrown by listener itself
+     * is not caught and listener is never called twice for one event
+     * </p>
+     *
+     * @param listener listener
+     * @param data     event data
+     */
+    @SuppressWarnings("unchecked")
+    static void deliver(EventManager.EventReceivedListener listener, Object data) {
+        if (null != data && !getDataType(listener.getClass()).isInstance(data)) {
+            Log.i(TAG, "Typed data not matched with broadcasting data");
+            //In case of mismatch of data type then only notify for event
+            listener.onEventReceived(null);
+            return;
+        }
+        listener.onEventReceived(data);
+    }
+
+    /**
+     * Get type argument of {@link EventManager.EventReceivedListener} implemented by listener class,
+     * {@link Object} if it can't be resolved like for raw or generic listener classes
+     *
+     * @param listenerClass class of listener
+     * @return type of event data accepted by listener
+     */
+    static Class<?> getDataType(Class<?> listenerClass) {
+        Class<?> dataType = sDataTypes.get(listenerClass);
+        if (null == dataType) {
+            dataType = resolveDataType(listenerClass);
+            sDataTypes.putIfAbsent(listenerClass, dataType);
+        }
+        return dataType;
+    }
+
+    private static Class<?> resolveDataType(Class<?> listenerClass) {
+        for (Class<?> type = listenerClass; null != type && type != Object.class; type = type.getSuperclass()) {
+            for (Type genericInterface : type.getGenericInterfaces()) {
+                if (genericInterface == EventManager.EventReceivedListener.class) {
+                    return Object.class;
+                }
+                if (genericInterface instanceof ParameterizedType && ((ParameterizedType) genericInterface)
+                        .getRawType() == EventManager.EventReceivedListener.class) {
+                    Type argument = ((ParameterizedType) genericInterface).getActualTypeArguments()[0];
+                    if (argument instanceof Class) {
+                        return (Class<?>) argument;
+                    }
+                    if (argument instanceof ParameterizedType
+                            && ((ParameterizedType) argument).getRawType() instanceof Class) {
+                        return (Class<?>) ((ParameterizedType) argument).getRawType();
+                    }
+                    return Object.class;
+                }
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * Clear the record and put it back in pool
+     */
+    private void recycle() {
+        mListeners = null;
+        mData = null;
+        mMetrics = null;
+        mEnqueueTime = 0;
+        synchronized (sPoolSync) {
+            if (sPoolSize < MAX_POOL_SIZE) {
+                mNext = sPool;
+                sPool = this;
+                sPoolSize++;
+            }
+        }
+    }
+}
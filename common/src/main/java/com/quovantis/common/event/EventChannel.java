@@ -0,0 +1,77 @@
+package com.quovantis.common.event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Typed event channel for {@link EventManager}, channel is a typed handle of an action defined
+ * in {@link EventTypes} and it is having a dense integer id which is used by {@link EventManager}
+ * to find listeners of the action by array index instead of hashing the action string
+ * </p>
+ * <p>
+ * Channels should be created once and kept in constants, as every created channel takes a new id
+ * </p>
+ * <pre>
+ * EventChannel&lt;DeviceItem&gt; DEVICE_SELECTED = EventChannel.create(EventTypes.EVENT_ACTION_DEVICE_SELECTED
+ *         , DeviceItem.class);
+ * </pre>
+ * <p>
+ * Listeners registered on a channel and listeners registered on its action string will receive same events
+ * </p>
+ *
+ * @param <T> type of event data of the channel
+ * @see EventManager#broadcastEvent(EventChannel, Object)
+ * @see EventManager#registerForEvent(EventChannel, EventManager.EventReceivedListener)
+ */
+public final class EventChannel<T> {
+
+    /**
+     * Id for next created channel
+     */
+    private static final AtomicInteger sNextId = new AtomicInteger(0);
+
+    private final int mId;
+    private final String mAction;
+    private final Class<T> mType;
+
+    private EventChannel(int id, String action, Class<T> type) {
+        mId = id;
+        mAction = action;
+        mType = type;
+    }
+
+    /**
+     * Create new channel for the action
+     *
+     * @param action action of the channel
+     * @param type   class of event data of the channel
+     * @param <T>    type of event data of the channel
+     * @return EventChannel
+     */
+    public static <T> EventChannel<T> create(String action, Class<T> type) {
+        if (action == null || action.trim().length() == 0) {
+            throw new IllegalArgumentException("Action can't be empty for event channel");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Type can't be null for event channel");
+        }
+        return new EventChannel<T>(sNextId.getAndIncrement(), action, type);
+    }
+
+    public int getId() {
+        return mId;
+    }
+
+    public String getAction() {
+        return mAction;
+    }
+
+    public Class<T> getType() {
+        return mType;
+    }
+
+    @Override
+    public String toString() {
+        return "EventChannel{" + mAction + ", " + mType.getSimpleName() + "}";
+    }
+}
@@ -1,13 +1,9 @@
 package com.quovantis.common.event;
 
-import android.os.Handler;
-import android.os.Looper;
 import android.text.TextUtils;
-import android.util.Log;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>
@@ -20,6 +16,11 @@ import java.util.List;
  * on event received for define action type {@link EventReceivedListener#onEventReceived(Object)} method will get called
  * </p>
  * <p>
+ * By default event is delivered on main thread, to receive event on some other thread register with
+ * a {@link DeliveryTarget} by {@link #registerForEvent(String, EventReceivedListener, DeliveryTarget)}
+ * and to bound pending events of a slow listener register with {@link SubscriberConfig}
+ * </p>
+ * <p>
  * If you register for a event then you should also call unregister for that event also
  * by calling {@link EventManager#unregisterReceiver(String, EventReceivedListener)} else it
  * will leak the receiver reference which is not a best practice
@@ -29,6 +30,16 @@ import java.util.List;
  * To Broadcast a event call {@link EventManager#broadcastEvent(String, Object)} method by passing event
  * type in argument and data for event listener
  * </p>
+ * <p>
+ * For typed events use {@link EventChannel} with {@link EventManager#broadcastEvent(EventChannel, Object)} and
+ * {@link EventManager#registerForEvent(EventChannel, EventReceivedListener)}, channel events are
+ * looked up by channel id so there is no string hashing for them on broadcast
+ * </p>
+ * <p>
+ * Broadcasting never takes a lock, listeners for an action are kept in {@link EventSlot} as copy on write
+ * array so only register and unregister of same action will wait for each other. Only broadcast of a
+ * sticky action takes the lock of its slot to order it with the replay to new listeners
+ * </p>
  *
  * @see EventManager.EventReceivedListener
  */
@@ -40,25 +51,20 @@ public class EventManager {
     private static EventManager sInstance;
 
     /**
-     * Collection will keep list of callback listener on basis of event type
+     * Collection will keep slot of callback listeners on basis of event type,
+     * slot once created for a action is kept for the life of manager as actions are limited
      */
-    private HashMap<String, List<EventReceivedListener>> mEventCallbacksMap = new HashMap<String, List<EventReceivedListener>>(5);
+    private final ConcurrentHashMap<String, EventSlot> mEventCallbacksMap = new ConcurrentHashMap<String, EventSlot>(5);
     /**
-     * Collection will keep mapped data for define action type
+     * Slots of {@link EventChannel} indexed by channel id, array is replaced on binding a new channel
      */
-    private HashMap<String, Object> mEventDataMap = new HashMap<String, Object>(5);
-
-    /**
-     * To post message on main thread use this Handler reference
-     */
-    private Handler mHandler = new Handler(Looper.getMainLooper());
+    private volatile EventSlot[] mChannelSlots = new EventSlot[8];
 
     /**
      * Private constructor for single ton instance only
      */
     private EventManager() {
         mEventCallbacksMap.clear();
-        mEventDataMap.clear();
     }
 
     /**
@@ -75,29 +81,92 @@ public class EventManager {
 
     /**
      * <p>
-     * Register a action here method will first search action in {@link #mEventCallbacksMap}
-     * if it is found then add callback reference in list of map for the key
-     * If not found then create a new list for the action and callback in
-     * that list and put that list in {@link #mEventCallbacksMap} with key action
+     * Register a action here method will first search action slot in {@link #mEventCallbacksMap}
+     * if it is not found then create a new slot for the action and put that slot in
+     * {@link #mEventCallbacksMap} with key action, after that add callback reference in the slot
      * </p>
      *
      * @param action   Action which need to register
      * @param callback Callback listener for the action
      */
-    public synchronized void registerForEvent(String action, EventReceivedListener callback) {
-        if (callback == null) {
+    public void registerForEvent(String action, EventReceivedListener callback) {
+        registerForEvent(action, callback, DeliveryTarget.MAIN_THREAD);
+    }
+
+    /**
+     * Register a action same as {@link #registerForEvent(String, EventReceivedListener)} but event
+     * will be delivered to callback on provided target
+     *
+     * @param action   Action which need to register
+     * @param callback Callback listener for the action
+     * @param target   DeliveryTarget on which callback will receive the event
+     */
+    public void registerForEvent(String action, EventReceivedListener callback, DeliveryTarget target) {
+        registerForEvent(action, callback, new SubscriberConfig().setDeliveryTarget(target));
+    }
+
+    /**
+     * Register a action same as {@link #registerForEvent(String, EventReceivedListener)} with
+     * configuration for the subscription, like delivery target and bounded mailbox
+     *
+     * @param action   Action which need to register
+     * @param callback Callback listener for the action
+     * @param config   SubscriberConfig of the subscription
+     */
+    public void registerForEvent(String action, EventReceivedListener callback, SubscriberConfig config) {
+        if (callback == null || action == null) {
             return;
         }
-        List<EventReceivedListener> registerCallback = mEventCallbacksMap.get(action);
-        //check whether the action callback list is already maintained if not then create and put in map
-        if (null == registerCallback) {
-            registerCallback = new ArrayList<EventReceivedListener>();
-            mEventCallbacksMap.put(action, registerCallback);
+        if (config == null) {
+            throw new IllegalArgumentException("SubscriberConfig can't be null for registering event");
         }
-        //if callback list for event not having callback already in list then add it in the list
-        if (!registerCallback.contains(callback)) {
-            registerCallback.add(callback);
+        getOrCreateSlot(action).add(callback, config);
+    }
+
+    /**
+     * Register for typed channel event
+     *
+     * @param channel  EventChannel which need to register
+     * @param callback Callback listener for the channel
+     * @param <T>      type of event data of the channel
+     * @see #registerForEvent(String, EventReceivedListener)
+     */
+    public <T> void registerForEvent(EventChannel<T> channel, EventReceivedListener<? super T> callback) {
+        registerForEvent(channel, callback, new SubscriberConfig());
+    }
+
+    /**
+     * Register for typed channel event with configuration for the subscription
+     *
+     * @param channel  EventChannel which need to register
+     * @param callback Callback listener for the channel
+     * @param config   SubscriberConfig of the subscription
+     * @param <T>      type of event data of the channel
+     * @see #registerForEvent(String, EventReceivedListener, SubscriberConfig)
+     */
+    public <T> void registerForEvent(EventChannel<T> channel, EventReceivedListener<? super T> callback
+            , SubscriberConfig config) {
+        if (callback == null || channel == null) {
+            return;
+        }
+        if (config == null) {
+            throw new IllegalArgumentException("SubscriberConfig can't be null for registering event");
         }
+        getChannelSlot(channel).add(callback, config);
+    }
+
+    /**
+     * Unregister the callback listener for typed channel
+     *
+     * @param channel  EventChannel which need to unregister
+     * @param callback Callback listener for the channel
+     * @param <T>      type of event data of the channel
+     */
+    public <T> void unregisterReceiver(EventChannel<T> channel, EventReceivedListener<? super T> callback) {
+        if (callback == null || channel == null) {
+            return;
+        }
+        getChannelSlot(channel).remove(callback);
     }
 
     /**
@@ -105,30 +174,28 @@ public class EventManager {
      * Unregister the callback listener for define action from here
      * it will first find the associated list of callback for the action
      * from {@link #mEventCallbacksMap} map
-     * remove callback listener from that list if that list is empty then
-     * remove that action from #mEventCallbacksMap map and find and remove the associated
-     * <p/>
-     * and then unregister that received receiver from LocalBroadCastManager
+     * and remove callback listener from that slot, empty slot is kept in the map
      * </p>
      *
      * @param action   Action which need to register
      * @param callback Callback listener for the action
      */
-    public synchronized void unregisterReceiver(String action, EventReceivedListener callback) {
-        if (callback == null) {
+    public void unregisterReceiver(String action, EventReceivedListener callback) {
+        if (callback == null || action == null) {
             return;
         }
-        List<EventReceivedListener> registerCallback = mEventCallbacksMap.get(action);
-        if (null != registerCallback) {
-            registerCallback.remove(callback);
-            if (registerCallback.isEmpty()) {
-                mEventCallbacksMap.remove(action);
-            }
+        EventSlot slot = mEventCallbacksMap.get(action);
+        if (null != slot) {
+            slot.remove(callback);
         }
     }
 
     /**
      * Broadcast event from here by passing action for intent
+     * <p>
+     * Data is handed directly to the dispatch of the event, there is no shared state between two
+     * broadcasts so it is safe to broadcast same action from multiple threads at same time
+     * </p>
      *
      * @param action Action
      * @param data   event data which need to be pass on event received
@@ -138,42 +205,193 @@ public class EventManager {
             return;
         }
         if (!TextUtils.isEmpty(action.trim())) {
-            if (null != data) {
-                mEventDataMap.put(action, data);
+            EventSlot slot = mEventCallbacksMap.get(action);
+            if (null != slot) {
+                fireEventOnSubscriber(slot, data);
             }
-            fireEventOnSubscriber(action);
         }
     }
 
+    /**
+     * Broadcast typed channel event, listeners of channel are found by channel id
+     *
+     * @param channel EventChannel
+     * @param data    event data which need to be pass on event received
+     * @param <T>     type of event data of the channel
+     */
+    public <T> void broadcastEvent(EventChannel<T> channel, T data) {
+        if (channel == null) {
+            return;
+        }
+        fireEventOnSubscriber(getChannelSlot(channel), data);
+    }
+
     /**
      * Method will fire event associated data on callback listener
+     * <p>
+     * Only one message is posted for a broadcast on each {@link DeliveryTarget} of the slot,
+     * the posted {@link DispatchRecord} will fire the event on every listener of that target
+     * </p>
+     *
+     * @param slot      Slot of the event action type
+     * @param eventData data of the event
+     */
+    private void fireEventOnSubscriber(EventSlot slot, Object eventData) {
+        slot.dispatch(eventData);
+    }
+
+    /**
+     * <p>
+     * Mark the action as conflating, for conflating action only latest value is important
+     * so if dispatch of the action is already pending then new broadcast data will replace the
+     * pending data instead of adding another message in queue
+     * </p>
+     * <p>
+     * Listeners of conflating action may not receive every broadcast data but they will always
+     * receive the latest one
+     * </p>
+     *
+     * @param action     Event action type
+     * @param conflating true if action need to be conflating else false
+     */
+    public void setConflating(String action, boolean conflating) {
+        if (action == null) {
+            return;
+        }
+        getOrCreateSlot(action).setConflating(conflating);
+    }
+
+    /**
+     * <p>
+     * Mark the action as sticky, for sticky action last broadcast data is kept by the manager
+     * and it is delivered to every new callback immediately on registration for the action
+     * </p>
+     * <p>
+     * Marking action as not sticky will also remove its kept data
+     * </p>
      *
      * @param action Event action type
+     * @param sticky true if action need to be sticky else false
      */
-    private synchronized void fireEventOnSubscriber(String action) {
+    public void setSticky(String action, boolean sticky) {
         if (action == null) {
             return;
         }
-        if (!TextUtils.isEmpty(action.trim())) {
-            List<EventReceivedListener> registerCallback = mEventCallbacksMap.get(action);
-            final Object eventData = mEventDataMap.remove(action);
-            if (null != registerCallback) {
-                for (final EventReceivedListener receiver : registerCallback) {
-                    try {
-                        mHandler.post(new Runnable() {
-                            @Override
-                            public void run() {
-                                receiver.onEventReceived(eventData);
-                            }
-                        });
-                    } catch (ClassCastException e) {
-                        Log.i("EventManager", "Typed data not matched with broadcasting data");
-                        //In case of exception with data value then only notify for event
-                        receiver.onEventReceived(null);
-                    }
-                }
-            }
+        getOrCreateSlot(action).setSticky(sticky);
+    }
+
+    /**
+     * Get last broadcast data of sticky action
+     *
+     * @param action Event action type
+     * @return last data or null if action is not sticky or nothing is broadcast yet
+     */
+    public Object getStickyEvent(String action) {
+        if (action == null) {
+            return null;
+        }
+        EventSlot slot = mEventCallbacksMap.get(action);
+        return null != slot ? slot.getStickyData() : null;
+    }
+
+    /**
+     * Get last broadcast data of sticky channel, same action can also be broadcast by
+     * {@link #broadcastEvent(String, Object)} with data of any type so data which is not of
+     * channel type is not returned
+     *
+     * @param channel EventChannel
+     * @param <T>     type of event data of the channel
+     * @return last data or null if channel action is not sticky, nothing is broadcast yet or
+     * last data is not of channel type
+     */
+    public <T> T getStickyEvent(EventChannel<T> channel) {
+        if (channel == null) {
+            return null;
         }
+        Object data = getChannelSlot(channel).getStickyData();
+        return channel.getType().isInstance(data) ? channel.getType().cast(data) : null;
+    }
+
+    /**
+     * Remove last broadcast data of sticky action so it will not be delivered to new callbacks,
+     * action will remain sticky for next broadcast
+     *
+     * @param action Event action type
+     */
+    public void removeStickyEvent(String action) {
+        if (action == null) {
+            return;
+        }
+        EventSlot slot = mEventCallbacksMap.get(action);
+        if (null != slot) {
+            slot.clearStickyData();
+        }
+    }
+
+    /**
+     * <p>
+     * Enable or disable recording of dispatch metrics for all actions, metrics are disabled by default
+     * </p>
+     * <p>
+     * While enabled, broadcast count, time spent by events in delivery queue, execution time of
+     * listeners and number of queued events are recorded for every action, when disabled recording
+     * cost only a flag check on broadcast
+     * </p>
+     *
+     * @param enabled true for recording metrics
+     * @see #getMetrics(String)
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        EventMetrics.setEnabled(enabled);
+    }
+
+    public boolean isMetricsEnabled() {
+        return EventMetrics.isEnabled();
+    }
+
+    /**
+     * Get snapshot of dispatch metrics of the action, metrics are recorded only while
+     * {@link #setMetricsEnabled(boolean)} is enabled
+     *
+     * @param action Event action type
+     * @return EventMetricsSnapshot or null if action is not known by the manager
+     */
+    public EventMetricsSnapshot getMetrics(String action) {
+        if (action == null) {
+            return null;
+        }
+        EventSlot slot = mEventCallbacksMap.get(action);
+        return null != slot ? slot.getMetrics(action) : null;
+    }
+
+    /**
+     * Get snapshot of dispatch metrics of the channel action
+     *
+     * @param channel EventChannel
+     * @return EventMetricsSnapshot
+     * @see #getMetrics(String)
+     */
+    public EventMetricsSnapshot getMetrics(EventChannel<?> channel) {
+        if (channel == null) {
+            return null;
+        }
+        return getChannelSlot(channel).getMetrics(channel.getAction());
+    }
+
+    /**
+     * Get number of events dropped for the callback because of its full mailbox
+     *
+     * @param action   Event action type
+     * @param callback Callback listener registered for the action
+     * @return dropped events count, 0 if callback is not registered with a mailbox
+     * @see SubscriberConfig#setMailbox(int, OverflowPolicy)
+     */
+    public long getDroppedEventCount(String action, EventReceivedListener callback) {
+        if (action == null || callback == null) {
+            return 0;
+        }
+        EventSlot slot = mEventCallbacksMap.get(action);
+        return null != slot ? slot.getDroppedCount(callback) : 0;
     }
 
     /**
@@ -183,8 +401,66 @@ public class EventManager {
      * @return true if subscriber for event available else return false
      */
     public boolean hasSubscriber(String action) {
-        List<EventReceivedListener> listeners = mEventCallbacksMap.get(action);
-        return null != listeners && !listeners.isEmpty();
+        if (action == null) {
+            return false;
+        }
+        EventSlot slot = mEventCallbacksMap.get(action);
+        return null != slot && !slot.isEmpty();
+    }
+
+    /**
+     * Get slot of the action, if slot is not available then create and put it in {@link #mEventCallbacksMap}
+     *
+     * @param action Event action type
+     * @return EventSlot for the action
+     */
+    private EventSlot getOrCreateSlot(String action) {
+        EventSlot slot = mEventCallbacksMap.get(action);
+        if (null == slot) {
+            EventSlot newSlot = new EventSlot();
+            slot = mEventCallbacksMap.putIfAbsent(action, newSlot);
+            if (null == slot) {
+                slot = newSlot;
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Get slot of the channel by channel id, channel is bound with the slot of its action on first use
+     *
+     * @param channel EventChannel
+     * @return EventSlot for the channel
+     */
+    private EventSlot getChannelSlot(EventChannel<?> channel) {
+        EventSlot[] slots = mChannelSlots;
+        int id = channel.getId();
+        if (id < slots.length) {
+            EventSlot slot = slots[id];
+            if (null != slot) {
+                return slot;
+            }
+        }
+        return bindChannelSlot(channel);
+    }
+
+    /**
+     * Bind channel with slot of its action and publish a new channel slots array
+     *
+     * @param channel EventChannel
+     * @return EventSlot for the channel
+     */
+    private synchronized EventSlot bindChannelSlot(EventChannel<?> channel) {
+        EventSlot[] slots = mChannelSlots;
+        int id = channel.getId();
+        if (id < slots.length && null != slots[id]) {
+            return slots[id];
+        }
+        EventSlot[] newSlots = Arrays.copyOf(slots, Math.max(slots.length, Integer.highestOneBit(id) << 1));
+        EventSlot slot = getOrCreateSlot(channel.getAction());
+        newSlots[id] = slot;
+        mChannelSlots = newSlots;
+        return slot;
     }
 
     /**
@@ -0,0 +1,145 @@
+package com.quovantis.common.event;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Dispatch metrics recorder of an {@link EventSlot}, it records broadcast count, time spent by events
+ * in queue of delivery target, execution time of every listener and number of queued events
+ * </p>
+ * <p>
+ * Recording is enabled for all slots by {@link #setEnabled(boolean)}, when it is disabled dispatch
+ * only read the enabled flag and does not read clock or touch any recorder
+ * </p>
+ */
+final class EventMetrics {
+
+    private static volatile boolean sEnabled;
+
+    private final AtomicLong mBroadcastCount = new AtomicLong();
+    private final AtomicInteger mBacklog = new AtomicInteger();
+    private final LatencyHistogram mQueueWait = new LatencyHistogram();
+    /**
+     * Execution time of listeners by registered listener, entry is added on registration and removed
+     * on unregistration so metrics never keep an unregistered listener
+     */
+    private final ConcurrentHashMap<EventManager.EventReceivedListener, ListenerExecution> mListenerExecution
+            = new ConcurrentHashMap<EventManager.EventReceivedListener, ListenerExecution>(4);
+
+    static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * @return monotonic time in nano seconds for recording
+     */
+    static long now() {
+        return System.nanoTime();
+    }
+
+    void onBroadcast() {
+        mBroadcastCount.incrementAndGet();
+    }
+
+    /**
+     * Called when an event is queued on delivery target
+     */
+    void onEnqueue() {
+        mBacklog.incrementAndGet();
+    }
+
+    /**
+     * Called when a queued event is dropped without delivery
+     */
+    void onDrop() {
+        mBacklog.decrementAndGet();
+    }
+
+    /**
+     * Called when a queued event is taken for delivery
+     *
+     * @param enqueueTime time of {@link #now()} when event was queued
+     */
+    void onDequeue(long enqueueTime) {
+        mBacklog.decrementAndGet();
+        mQueueWait.record(now() - enqueueTime);
+    }
+
+    /**
+     * Called when listener is registered in the slot
+     *
+     * @param listener listener or {@link WeakListener} registered in the slot
+     */
+    void onListenerAdded(EventManager.EventReceivedListener listener) {
+        mListenerExecution.putIfAbsent(listener, new ListenerExecution(nameOf(listener)));
+    }
+
+    /**
+     * Called when listener is removed from the slot
+     *
+     * @param listener listener or {@link WeakListener} registered in the slot
+     */
+    void onListenerRemoved(EventManager.EventReceivedListener listener) {
+        mListenerExecution.remove(listener);
+    }
+
+    /**
+     * Record execution time of listener, it is ignored for a listener which is already unregistered
+     *
+     * @param listener listener or {@link WeakListener} registered in the slot
+     * @param nanos    execution time
+     */
+    void onExecuted(EventManager.EventReceivedListener listener, long nanos) {
+        ListenerExecution execution = mListenerExecution.get(listener);
+        if (null != execution) {
+            execution.mHistogram.record(nanos);
+        }
+    }
+
+    /**
+     * Name of listener in snapshot, class name of actual listener with its identity hash code
+     * so two listeners of same class are reported separately
+     */
+    private static String nameOf(EventManager.EventReceivedListener listener) {
+        if (listener instanceof WeakListener) {
+            EventManager.EventReceivedListener actual = ((WeakListener) listener).get();
+            if (null != actual) {
+                listener = actual;
+            }
+        }
+        return listener.getClass().getName() + '@' + Integer.toHexString(System.identityHashCode(listener));
+    }
+
+    /**
+     * @param action action of the slot
+     * @return snapshot of current metrics
+     */
+    EventMetricsSnapshot snapshot(String action) {
+        Map<String, LatencySnapshot> listenerExecution = new HashMap<String, LatencySnapshot>(mListenerExecution.size());
+        for (ListenerExecution execution : mListenerExecution.values()) {
+            listenerExecution.put(execution.mName, execution.mHistogram.snapshot());
+        }
+        return new EventMetricsSnapshot(action, mBroadcastCount.get(), Math.max(0, mBacklog.get())
+                , mQueueWait.snapshot(), listenerExecution);
+    }
+
+    /**
+     * Execution time of a registered listener
+     */
+    private static final class ListenerExecution {
+        final String mName;
+        final LatencyHistogram mHistogram = new LatencyHistogram();
+
+        ListenerExecution(String name) {
+            mName = name;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.quovantis.common.event;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * <p>
+ * Snapshot of dispatch metrics of an action in {@link EventManager}
+ * </p>
+ * <ul>
+ * <li>{@link #getBroadcastCount()} number of broadcasts of the action</li>
+ * <li>{@link #getBacklog()} number of events waiting in delivery queues</li>
+ * <li>{@link #getQueueWait()} time from broadcast to start of delivery for queued events</li>
+ * <li>{@link #getListenerExecution()} time taken by every registered listener, mapped by listener class name
+ * with identity hash code of listener like {@code com.example.Listener@1b6d3586}</li>
+ * </ul>
+ * <p>
+ * Metrics are recorded only while they are enabled by {@link EventManager#setMetricsEnabled(boolean)}
+ * </p>
+ *
+ * @see EventManager#getMetrics(String)
+ */
+public final class EventMetricsSnapshot {
+    private final String mAction;
+    private final long mBroadcastCount;
+    private final int mBacklog;
+    private final LatencySnapshot mQueueWait;
+    private final Map<String, LatencySnapshot> mListenerExecution;
+
+    EventMetricsSnapshot(String action, long broadcastCount, int backlog, LatencySnapshot queueWait
+            , Map<String, LatencySnapshot> listenerExecution) {
+        mAction = action;
+        mBroadcastCount = broadcastCount;
+        mBacklog = backlog;
+        mQueueWait = queueWait;
+        mListenerExecution = Collections.unmodifiableMap(listenerExecution);
+    }
+
+    public String getAction() {
+        return mAction;
+    }
+
+    public long getBroadcastCount() {
+        return mBroadcastCount;
+    }
+
+    public int getBacklog() {
+        return mBacklog;
+    }
+
+    public LatencySnapshot getQueueWait() {
+        return mQueueWait;
+    }
+
+    public Map<String, LatencySnapshot> getListenerExecution() {
+        return mListenerExecution;
+    }
+
+    @Override
+    public String toString() {
+        return "EventMetricsSnapshot{" + mAction + ", broadcasts=" + mBroadcastCount + ", backlog=" + mBacklog
+                + ", queueWait={" + mQueueWait + "}, listeners=" + mListenerExecution + "}";
+    }
+}
@@ -0,0 +1,300 @@
+package com.quovantis.common.event;
+
+/**
+ * <p>
+ * Holder of the registered listeners for a single action type of {@link EventManager}
+ * </p>
+ * <p>
+ * Listeners are kept in {@link DeliveryGroup} on basis of their {@link DeliveryTarget}, groups and
+ * listeners of every group are kept in copy on write arrays, every add or remove will create a new
+ * array and publish it through a volatile field. So readers on broadcast side can iterate over
+ * them without taking any lock and without allocating an iterator,
+ * while writers are serialized on the slot monitor.
+ * </p>
+ * <p>
+ * Slot can be marked as conflating, in that case only latest broadcast data is kept in the slot
+ * and a new broadcast will replace the data of already pending dispatch instead of posting new one
+ * </p>
+ * <p>
+ * Listener of weak subscription is kept as {@link WeakListener} and it is removed from slot on first
+ * dispatch after the actual listener is collected
+ * </p>
+ * <p>
+ * Slot can be marked as sticky, in that case last broadcast data is kept in the slot and it is
+ * delivered to every new listener immediately on registration. Broadcast of sticky slot updates the data
+ * and posts on asynchronous targets while holding the slot monitor, so a new listener gets either the replay
+ * or the broadcast of a data and never both. Listeners are never called while holding the slot monitor,
+ * synchronous listeners and blocking mailboxes are dispatched after releasing it
+ * </p>
+ */
+final class EventSlot {
+
+    /**
+     * Shared empty groups array for the slot which does not have any listener
+     */
+    private static final DeliveryGroup[] EMPTY_GROUPS = new DeliveryGroup[0];
+
+    /**
+     * Current published snapshot of groups, never modified after publish
+     */
+    private volatile DeliveryGroup[] mGroups = EMPTY_GROUPS;
+
+    /**
+     * Marker for no sticky data in slot, as null is a valid event data
+     */
+    private static final Object NO_DATA = new Object();
+
+    /**
+     * true if only latest data of the action need to be delivered
+     */
+    private volatile boolean mConflating;
+
+    /**
+     * Dispatch metrics of the slot, it records only when metrics is enabled
+     */
+    private final EventMetrics mMetrics = new EventMetrics();
+
+    /**
+     * true if last data of the action need to be kept for new listeners
+     */
+    private volatile boolean mSticky;
+    /**
+     * Last broadcast data of sticky slot
+     */
+    private volatile Object mStickyData = NO_DATA;
+
+    /**
+     * Fire event data on all listeners of the slot
+     *
+     * @param data event data
+     */
+    void dispatch(Object data) {
+        if (EventMetrics.isEnabled()) {
+            mMetrics.onBroadcast();
+        }
+        if (mSticky) {
+            dispatchSticky(data);
+            return;
+        }
+        DeliveryGroup[] groups = mGroups;
+        boolean conflating = mConflating;
+        for (int i = 0; i < groups.length; i++) {
+            groups[i].dispatch(data, conflating);
+        }
+    }
+
+    /**
+     * Update sticky data and fire it on all listeners, ordered with {@link #add(EventManager.EventReceivedListener,
+     * SubscriberConfig)} by the slot monitor
+     *
+     * @param data event data
+     */
+    private void dispatchSticky(Object data) {
+        DeliveryGroup[] groups;
+        EventManager.EventReceivedListener[][] deferred = null;
+        boolean conflating = mConflating;
+        synchronized (this) {
+            mStickyData = data;
+            groups = mGroups;
+            for (int i = 0; i < groups.length; i++) {
+                if (groups[i].isPostOnly(conflating)) {
+                    groups[i].dispatch(data, conflating);
+                } else {
+                    if (null == deferred) {
+                        deferred = new EventManager.EventReceivedListener[groups.length][];
+                    }
+                    deferred[i] = groups[i].getListeners();
+                }
+            }
+        }
+        if (null == deferred) {
+            return;
+        }
+        //listeners are taken with the data, so a listener added after this has got the data by replay
+        for (int i = 0; i < groups.length; i++) {
+            if (null != deferred[i]) {
+                groups[i].dispatch(data, conflating, deferred[i]);
+            }
+        }
+    }
+
+    /**
+     * Add listener in slot if it is not already added, listener with mailbox will get its own group
+     *
+     * @param listener listener which need to add
+     * @param config   configuration of the subscription
+     * @return true if listener is added else false
+     */
+    boolean add(EventManager.EventReceivedListener listener, SubscriberConfig config) {
+        EventManager.EventReceivedListener registered;
+        Object stickyData;
+        synchronized (this) {
+            registered = addLocked(listener, config);
+            if (null == registered) {
+                return false;
+            }
+            stickyData = mSticky ? mStickyData : NO_DATA;
+            if (stickyData == NO_DATA) {
+                return true;
+            }
+            if (!config.getDeliveryTarget().isSynchronous()) {
+                DeliveryGroup[] groups = mGroups;
+                for (int i = 0; i < groups.length; i++) {
+                    if (groups[i].indexOf(registered) >= 0) {
+                        groups[i].replay(registered, stickyData, mConflating);
+                        break;
+                    }
+                }
+                return true;
+            }
+        }
+        //synchronous listener is called after releasing the slot monitor
+        DispatchRecord.deliver(registered, stickyData);
+        return true;
+    }
+
+    /**
+     * Add listener in its group, caller must hold the slot monitor
+     *
+     * @return registered listener or null if listener was already added
+     */
+    private EventManager.EventReceivedListener addLocked(EventManager.EventReceivedListener listener,
+            SubscriberConfig config) {
+        DeliveryGroup[] groups = mGroups;
+        DeliveryTarget target = config.getDeliveryTarget();
+        boolean sharedGroup = config.getMailboxCapacity() == 0;
+        DeliveryGroup targetGroup = null;
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i].indexOf(listener) >= 0) {
+                return null;
+            }
+            if (sharedGroup && !groups[i].hasMailbox() && groups[i].getTarget() == target) {
+                targetGroup = groups[i];
+            }
+        }
+        EventManager.EventReceivedListener registered = config.isWeakReference()
+                ? new WeakListener(listener, this) : listener;
+        if (null == targetGroup) {
+            targetGroup = new DeliveryGroup(target, config.getMailboxCapacity(), config.getOverflowPolicy()
+                    , mMetrics, this);
+            targetGroup.add(registered);
+            DeliveryGroup[] newGroups = new DeliveryGroup[groups.length + 1];
+            System.arraycopy(groups, 0, newGroups, 0, groups.length);
+            newGroups[groups.length] = targetGroup;
+            mGroups = newGroups;
+        } else {
+            targetGroup.add(registered);
+        }
+        mMetrics.onListenerAdded(registered);
+        return registered;
+    }
+
+    /**
+     * Remove listener from slot, it is also used for pruning collected weak listener
+     *
+     * @param listener listener or {@link WeakListener} which need to remove
+     * @return true if listener was found and removed else false
+     */
+    synchronized boolean remove(EventManager.EventReceivedListener listener) {
+        DeliveryGroup[] groups = mGroups;
+        for (int i = 0; i < groups.length; i++) {
+            EventManager.EventReceivedListener registered = groups[i].remove(listener);
+            if (null != registered) {
+                mMetrics.onListenerRemoved(registered);
+                if (groups[i].isEmpty()) {
+                    removeGroup(i);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get number of events dropped by mailbox of the listener
+     *
+     * @param listener listener
+     * @return dropped events count, 0 if listener is not found or it is not having mailbox
+     */
+    long getDroppedCount(EventManager.EventReceivedListener listener) {
+        DeliveryGroup[] groups = mGroups;
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i].indexOf(listener) >= 0) {
+                return groups[i].getDroppedCount();
+            }
+        }
+        return 0;
+    }
+
+    private void removeGroup(int index) {
+        DeliveryGroup[] groups = mGroups;
+        groups[index].detach();
+        if (groups.length == 1) {
+            mGroups = EMPTY_GROUPS;
+            return;
+        }
+        DeliveryGroup[] newGroups = new DeliveryGroup[groups.length - 1];
+        System.arraycopy(groups, 0, newGroups, 0, index);
+        System.arraycopy(groups, index + 1, newGroups, index, groups.length - index - 1);
+        mGroups = newGroups;
+    }
+
+    /**
+     * Mark slot as conflating or not
+     *
+     * @param conflating true if only latest data need to be delivered
+     */
+    void setConflating(boolean conflating) {
+        mConflating = conflating;
+    }
+
+    boolean isConflating() {
+        return mConflating;
+    }
+
+    /**
+     * Mark slot as sticky or not, sticky data is cleared if slot is marked as not sticky
+     *
+     * @param sticky true if last data need to be delivered to new listeners
+     */
+    void setSticky(boolean sticky) {
+        mSticky = sticky;
+        if (!sticky) {
+            mStickyData = NO_DATA;
+        }
+    }
+
+    /**
+     * Get last broadcast data of sticky slot
+     *
+     * @return sticky data or null if there is no sticky data
+     */
+    Object getStickyData() {
+        Object data = mStickyData;
+        return data == NO_DATA ? null : data;
+    }
+
+    /**
+     * Clear the sticky data so it will not be delivered to new listeners
+     */
+    void clearStickyData() {
+        mStickyData = NO_DATA;
+    }
+
+    /**
+     * @param action action of the slot
+     * @return snapshot of dispatch metrics of the slot
+     */
+    EventMetricsSnapshot getMetrics(String action) {
+        return mMetrics.snapshot(action);
+    }
+
+    /**
+     * Check whether slot is having any listener or not
+     *
+     * @return true if slot is empty
+     */
+    boolean isEmpty() {
+        return mGroups.length == 0;
+    }
+}
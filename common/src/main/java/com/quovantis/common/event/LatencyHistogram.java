@@ -0,0 +1,52 @@
+package com.quovantis.common.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Lock free recorder of durations in nano seconds, durations are counted in power of two buckets
+ * so recording is only few atomic increments and it never allocates
+ * </p>
+ * <p>
+ * Bucket at index i count durations from 2^(i-1) to 2^i - 1 nano seconds, bucket 0 count zero durations
+ * </p>
+ */
+final class LatencyHistogram {
+
+    static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mTotal = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+
+    /**
+     * Record a duration
+     *
+     * @param nanos duration in nano seconds, negative duration is recorded as zero
+     */
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        mBuckets.incrementAndGet(BUCKET_COUNT - Long.numberOfLeadingZeros(nanos));
+        mCount.incrementAndGet();
+        mTotal.addAndGet(nanos);
+        long max = mMax.get();
+        while (nanos > max && !mMax.compareAndSet(max, nanos)) {
+            max = mMax.get();
+        }
+    }
+
+    /**
+     * @return copy of recorded values, values recorded while taking snapshot may be partially included
+     */
+    LatencySnapshot snapshot() {
+        long[] buckets = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = mBuckets.get(i);
+        }
+        return new LatencySnapshot(buckets, mCount.get(), mTotal.get(), mMax.get());
+    }
+}
@@ -0,0 +1,76 @@
+package com.quovantis.common.event;
+
+/**
+ * <p>
+ * Snapshot of a latency histogram recorded by {@link EventManager}, all durations are in nano seconds
+ * </p>
+ * <p>
+ * Durations are counted in power of two buckets, bucket at index i count durations from 2^(i-1)
+ * to 2^i - 1 nano seconds so percentile values are upper bound of their bucket
+ * </p>
+ *
+ * @see EventMetricsSnapshot
+ */
+public final class LatencySnapshot {
+    private final long[] mBuckets;
+    private final long mCount;
+    private final long mTotalNanos;
+    private final long mMaxNanos;
+
+    LatencySnapshot(long[] buckets, long count, long totalNanos, long maxNanos) {
+        mBuckets = buckets;
+        mCount = count;
+        mTotalNanos = totalNanos;
+        mMaxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getMaxNanos() {
+        return mMaxNanos;
+    }
+
+    public long getMeanNanos() {
+        return mCount == 0 ? 0 : mTotalNanos / mCount;
+    }
+
+    /**
+     * Get count of a bucket
+     *
+     * @param index bucket index from 0 to 63
+     * @return count of durations in bucket
+     */
+    public long getBucketCount(int index) {
+        return mBuckets[index];
+    }
+
+    /**
+     * Get approximate percentile of recorded durations
+     *
+     * @param percentile percentile from 0 to 100
+     * @return upper bound of the bucket having the percentile, it is never more than max duration
+     */
+    public long getPercentileNanos(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(mCount * Math.min(Math.max(percentile, 0d), 100d) / 100d);
+        long seen = 0;
+        for (int i = 0; i < mBuckets.length; i++) {
+            seen += mBuckets[i];
+            if (seen >= rank && seen > 0) {
+                long upperBound = i == 0 ? 0 : (1L << i) - 1;
+                return Math.min(upperBound, mMaxNanos);
+            }
+        }
+        return mMaxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + mCount + ", mean=" + getMeanNanos() + "ns, p50=" + getPercentileNanos(50)
+                + "ns, p99=" + getPercentileNanos(99) + "ns, max=" + mMaxNanos + "ns";
+    }
+}
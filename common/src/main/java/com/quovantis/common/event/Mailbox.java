@@ -0,0 +1,182 @@
+package com.quovantis.common.event;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Bounded ring buffer of pending events for a subscriber, when buffer is full new event is
+ * handled on basis of {@link OverflowPolicy}
+ * </p>
+ * <p>
+ * Mailbox also keep track whether a drain of the mailbox is scheduled on delivery target
+ * or not, so only one drain is pending on the target at a time
+ * </p>
+ * <p>
+ * Producer blocked by {@link OverflowPolicy#BLOCK_PRODUCER} waits at most the block timeout of
+ * mailbox, after that or when mailbox is closed the new event is dropped
+ * </p>
+ */
+final class Mailbox {
+
+    /**
+     * Marker returned from {@link #poll()} when mailbox is empty, as null is a valid event data
+     */
+    static final Object EMPTY = new Object();
+
+    private final Object[] mBuffer;
+    /**
+     * Time of {@link EventMetrics#now()} when event in same index of {@link #mBuffer} was queued,
+     * 0 if metrics was disabled
+     */
+    private final long[] mEnqueueTimes;
+    private final EventMetrics mMetrics;
+    private final OverflowPolicy mPolicy;
+    private final long mBlockTimeoutMillis;
+    private int mHead;
+    private int mCount;
+    private boolean mDrainScheduled;
+    private long mDroppedCount;
+    /**
+     * true if mailbox will not be drained anymore, like after release of its delivery target
+     */
+    private boolean mClosed;
+
+    /**
+     * Create mailbox
+     *
+     * @param capacity           maximum number of pending events
+     * @param policy             policy on offer of event when mailbox is full
+     * @param metrics            metrics of the slot of mailbox
+     * @param blockTimeoutMillis maximum time a producer waits for {@link OverflowPolicy#BLOCK_PRODUCER}
+     */
+    Mailbox(int capacity, OverflowPolicy policy, EventMetrics metrics, long blockTimeoutMillis) {
+        mBuffer = new Object[capacity];
+        mEnqueueTimes = new long[capacity];
+        mPolicy = policy;
+        mMetrics = metrics;
+        mBlockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    /**
+     * Put event data in mailbox
+     *
+     * @param data        event data
+     * @param canBlock    false if calling thread is the thread which drains the mailbox
+     * @param enqueueTime time of {@link EventMetrics#now()} for recording metrics, 0 if metrics is disabled
+     * @return true if drain of mailbox is not scheduled and caller need to schedule it
+     */
+    synchronized boolean offer(Object data, boolean canBlock, long enqueueTime) {
+        if (mClosed) {
+            mDroppedCount++;
+            return false;
+        }
+        if (mCount == mBuffer.length) {
+            switch (mPolicy) {
+                case DROP_OLDEST:
+                    if (mEnqueueTimes[mHead] != 0) {
+                        mMetrics.onDrop();
+                    }
+                    mBuffer[mHead] = null;
+                    mHead = (mHead + 1) % mBuffer.length;
+                    mCount--;
+                    mDroppedCount++;
+                    break;
+                case BLOCK_PRODUCER:
+                    if (canBlock && awaitSpace()) {
+                        break;
+                    }
+                    //can't wait on the delivery thread itself or waited till timeout so drop new event
+                case DROP_NEWEST:
+                default:
+                    mDroppedCount++;
+                    return false;
+            }
+        }
+        int tail = (mHead + mCount) % mBuffer.length;
+        mBuffer[tail] = data;
+        mEnqueueTimes[tail] = enqueueTime;
+        mCount++;
+        if (enqueueTime != 0) {
+            mMetrics.onEnqueue();
+        }
+        if (mDrainScheduled) {
+            return false;
+        }
+        mDrainScheduled = true;
+        return true;
+    }
+
+    /**
+     * Wait till there is space in mailbox, block timeout or close of mailbox
+     *
+     * @return true if there is space for new event
+     */
+    private boolean awaitSpace() {
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(mBlockTimeoutMillis);
+        try {
+            while (mCount == mBuffer.length && !mClosed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            return !mClosed;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Close the mailbox as it will not be drained anymore, blocked producers are woken and
+     * every event offered after this is dropped
+     */
+    synchronized void close() {
+        mClosed = true;
+        notifyAll();
+    }
+
+    /**
+     * Take oldest event data from mailbox, if mailbox is empty then drain is marked as not scheduled
+     *
+     * @return event data or {@link #EMPTY} if there is no pending event
+     */
+    synchronized Object poll() {
+        if (mCount == 0) {
+            mDrainScheduled = false;
+            return EMPTY;
+        }
+        Object data = mBuffer[mHead];
+        if (mEnqueueTimes[mHead] != 0) {
+            mMetrics.onDequeue(mEnqueueTimes[mHead]);
+        }
+        mBuffer[mHead] = null;
+        mHead = (mHead + 1) % mBuffer.length;
+        mCount--;
+        if (mPolicy == OverflowPolicy.BLOCK_PRODUCER) {
+            notifyAll();
+        }
+        return data;
+    }
+
+    /**
+     * @return number of events dropped by the mailbox
+     */
+    synchronized long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * @return number of events waiting in the mailbox
+     */
+    synchronized int size() {
+        return mCount;
+    }
+}
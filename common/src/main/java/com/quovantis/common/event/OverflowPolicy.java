@@ -0,0 +1,24 @@
+package com.quovantis.common.event;
+
+/**
+ * Policy of a bounded subscriber mailbox when a new event is broadcast and mailbox is already full
+ *
+ * @see SubscriberConfig#setMailbox(int, OverflowPolicy)
+ */
+public enum OverflowPolicy {
+    /**
+     * Drop the oldest undelivered event from mailbox to make space for new event
+     */
+    DROP_OLDEST,
+    /**
+     * Drop the new event and keep already queued events
+     */
+    DROP_NEWEST,
+    /**
+     * Block the broadcasting thread until the subscriber takes an event from mailbox,
+     * if broadcasting thread is the delivery thread of subscriber then new event is dropped.
+     * Broadcasting thread is blocked for at most one second, and it is woken when delivery target
+     * of subscriber is released, in both cases new event is dropped
+     */
+    BLOCK_PRODUCER
+}
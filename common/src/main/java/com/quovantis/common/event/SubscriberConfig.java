@@ -0,0 +1,82 @@
+package com.quovantis.common.event;
+
+/**
+ * <p>
+ * Configuration of a subscription in {@link EventManager}
+ * </p>
+ * <p>
+ * {@link DeliveryTarget} decide the thread on which event will be delivered, default is
+ * {@link DeliveryTarget#MAIN_THREAD}
+ * </p>
+ * <p>
+ * By default pending events of a subscriber are not bounded, to bound them provide a mailbox
+ * capacity and {@link OverflowPolicy} using {@link #setMailbox(int, OverflowPolicy)}
+ * </p>
+ * <p>
+ * Subscription keep strong reference of the listener, use {@link #setWeakReference(boolean)} to keep
+ * only weak reference so a listener which is not unregistered will not leak
+ * </p>
+ *
+ * @see EventManager#registerForEvent(String, EventManager.EventReceivedListener, SubscriberConfig)
+ */
+public final class SubscriberConfig {
+    private DeliveryTarget mDeliveryTarget = DeliveryTarget.MAIN_THREAD;
+    private int mMailboxCapacity;
+    private OverflowPolicy mOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private boolean mWeakReference;
+
+    public SubscriberConfig setDeliveryTarget(DeliveryTarget val) {
+        if (val == null) {
+            throw new IllegalArgumentException("DeliveryTarget can't be null for subscriber");
+        }
+        mDeliveryTarget = val;
+        return this;
+    }
+
+    /**
+     * Bound the pending events of subscriber
+     *
+     * @param capacity maximum number of pending events, 0 for unbounded
+     * @param policy   policy on broadcast of event when mailbox is full
+     * @return SubscriberConfig
+     */
+    public SubscriberConfig setMailbox(int capacity, OverflowPolicy policy) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Mailbox capacity can't be negative");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("OverflowPolicy can't be null for mailbox");
+        }
+        mMailboxCapacity = capacity;
+        mOverflowPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Keep only weak reference of the listener, caller must keep strong reference of the listener
+     * for as long as it want to receive events
+     *
+     * @param val true for weak subscription
+     * @return SubscriberConfig
+     */
+    public SubscriberConfig setWeakReference(boolean val) {
+        mWeakReference = val;
+        return this;
+    }
+
+    public DeliveryTarget getDeliveryTarget() {
+        return mDeliveryTarget;
+    }
+
+    public int getMailboxCapacity() {
+        return mMailboxCapacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    public boolean isWeakReference() {
+        return mWeakReference;
+    }
+}
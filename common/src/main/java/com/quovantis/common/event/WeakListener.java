@@ -0,0 +1,45 @@
+package com.quovantis.common.event;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * <p>
+ * Listener registered in {@link EventSlot} for a weak subscription, it keeps only weak reference
+ * of the actual listener so registration alone will not keep the listener and its outer
+ * Activity in memory
+ * </p>
+ * <p>
+ * When actual listener is collected then on next event delivery this listener is pruned from its slot,
+ * so there is no extra sweep for collected listeners
+ * </p>
+ *
+ * @see SubscriberConfig#setWeakReference(boolean)
+ */
+final class WeakListener implements EventManager.EventReceivedListener<Object> {
+    private final WeakReference<EventManager.EventReceivedListener> mListener;
+    private final EventSlot mSlot;
+
+    WeakListener(EventManager.EventReceivedListener listener, EventSlot slot) {
+        mListener = new WeakReference<EventManager.EventReceivedListener>(listener);
+        mSlot = slot;
+    }
+
+    /**
+     * @return actual listener or null if it is collected
+     */
+    EventManager.EventReceivedListener get() {
+        return mListener.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onEventReceived(Object data) throws ClassCastException {
+        EventManager.EventReceivedListener listener = mListener.get();
+        if (null == listener) {
+            mSlot.remove(this);
+            return;
+        }
+        //type of actual listener is checked as this wrapper accepts any data
+        DispatchRecord.deliver(listener, data);
+    }
+}
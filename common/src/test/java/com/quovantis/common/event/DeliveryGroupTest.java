@@ -0,0 +1,92 @@
+package com.quovantis.common.event;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class DeliveryGroupTest extends TestCase {
+
+    @Test
+    public void testConflatingGroupDeliversLatestValue() throws Exception {
+        QueuedTarget target = new QueuedTarget();
+        DeliveryGroup group = new DeliveryGroup(target, 0, OverflowPolicy.DROP_OLDEST,
+                new EventMetrics(), new Object());
+        EventManagerTest.CountingListener listener = new EventManagerTest.CountingListener();
+        group.add(listener);
+
+        group.dispatch(1, true);
+        group.dispatch(2, true);
+        group.dispatch(3, true);
+        target.runAll();
+
+        Assert.assertEquals(Collections.<Object>singletonList(3), listener.mReceived);
+    }
+
+    @Test
+    public void testConflatingGroupKeepsOnePendingDispatch() throws Exception {
+        QueuedTarget target = new QueuedTarget();
+        DeliveryGroup group = new DeliveryGroup(target, 0, OverflowPolicy.DROP_OLDEST,
+                new EventMetrics(), new Object());
+        EventManagerTest.CountingListener first = new EventManagerTest.CountingListener();
+        EventManagerTest.CountingListener second = new EventManagerTest.CountingListener();
+        group.add(first);
+        group.add(second);
+
+        for (int i = 0; i < 100; i++) {
+            group.dispatch(i, true);
+        }
+        Assert.assertEquals(1, target.pendingCount());
+        target.runAll();
+
+        //broadcast after the pending dispatch has run is posted again
+        group.dispatch(100, true);
+        Assert.assertEquals(1, target.pendingCount());
+        target.runAll();
+
+        Assert.assertEquals(Arrays.<Object>asList(99, 100), first.mReceived);
+        Assert.assertEquals(Arrays.<Object>asList(99, 100), second.mReceived);
+    }
+
+    @Test
+    public void testNonConflatingGroupDeliversEveryValue() throws Exception {
+        QueuedTarget target = new QueuedTarget();
+        DeliveryGroup group = new DeliveryGroup(target, 0, OverflowPolicy.DROP_OLDEST,
+                new EventMetrics(), new Object());
+        EventManagerTest.CountingListener listener = new EventManagerTest.CountingListener();
+        group.add(listener);
+
+        group.dispatch(1, false);
+        group.dispatch(2, false);
+        Assert.assertEquals(2, target.pendingCount());
+        target.runAll();
+
+        Assert.assertEquals(Arrays.<Object>asList(1, 2), listener.mReceived);
+    }
+
+    @Test
+    public void testConflatingSlotPostsOncePerGroup() throws Exception {
+        EventManager manager = EventManager.getInstance();
+        String action = "conflating_slot";
+        QueuedTarget target = new QueuedTarget();
+        EventManagerTest.CountingListener listener = new EventManagerTest.CountingListener();
+        manager.setConflating(action, true);
+        manager.registerForEvent(action, listener, target);
+
+        manager.broadcastEvent(action, "first");
+        manager.broadcastEvent(action, "latest");
+        Assert.assertEquals(1, target.pendingCount());
+        target.runAll();
+
+        Assert.assertEquals(Collections.<Object>singletonList("latest"), listener.mReceived);
+        manager.unregisterReceiver(action, listener);
+        manager.setConflating(action, false);
+    }
+}
@@ -0,0 +1,119 @@
+package com.quovantis.common.event;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class DispatchRecordTest extends TestCase {
+
+    @Test
+    public void testRunDeliversToEveryListener() throws Exception {
+        EventManagerTest.CountingListener first = new EventManagerTest.CountingListener();
+        EventManagerTest.CountingListener second = new EventManagerTest.CountingListener();
+
+        DispatchRecord.obtain(new EventManager.EventReceivedListener[]{first, second}, "data", null).run();
+
+        Assert.assertEquals(Collections.<Object>singletonList("data"), first.mReceived);
+        Assert.assertEquals(Collections.<Object>singletonList("data"), second.mReceived);
+    }
+
+    @Test
+    public void testRecordIsRecycledAfterRun() throws Exception {
+        EventManagerTest.CountingListener first = new EventManagerTest.CountingListener();
+        EventManagerTest.CountingListener second = new EventManagerTest.CountingListener();
+        DispatchRecord record = DispatchRecord.obtain(new EventManager.EventReceivedListener[]{first}, 1, null);
+        record.run();
+
+        DispatchRecord reused = DispatchRecord.obtain(new EventManager.EventReceivedListener[]{second}, 2, null);
+        reused.run();
+
+        Assert.assertSame(record, reused);
+        //recycled record doesn't keep listeners or data of previous broadcast
+        Assert.assertEquals(Collections.<Object>singletonList(1), first.mReceived);
+        Assert.assertEquals(Collections.<Object>singletonList(2), second.mReceived);
+    }
+
+    @Test
+    public void testMismatchedDataIsDeliveredAsNullOnce() throws Exception {
+        StringListener listener = new StringListener();
+
+        DispatchRecord.deliver(listener, 5);
+        DispatchRecord.deliver(listener, "data");
+
+        Assert.assertEquals(Arrays.asList(null, "data"), listener.mReceived);
+    }
+
+    @Test
+    public void testListenerExceptionIsNotRetried() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        EventManager.EventReceivedListener<String> listener = new EventManager.EventReceivedListener<String>() {
+            @Override
+            public void onEventReceived(String data) {
+                calls.incrementAndGet();
+                throw new ClassCastException("thrown by listener");
+            }
+        };
+        try {
+            DispatchRecord.deliver(listener, "data");
+            fail("Exception of listener should not be swallowed");
+        } catch (ClassCastException e) {
+            //expected
+        }
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testWeakListenerChecksTypeOfActualListener() throws Exception {
+        StringListener listener = new StringListener();
+        WeakListener weakListener = new WeakListener(listener, null);
+
+        DispatchRecord.deliver(weakListener, 5);
+
+        Assert.assertEquals(Collections.<Object>singletonList(null), listener.mReceived);
+    }
+
+    @Test
+    public void testPoolIsBounded() throws Exception {
+        EventManager.EventReceivedListener[] listeners = new EventManager.EventReceivedListener[0];
+        //take more records than pool size so pool is empty and all records are known
+        List<DispatchRecord> records = new ArrayList<DispatchRecord>();
+        for (int i = 0; i < 40; i++) {
+            records.add(DispatchRecord.obtain(listeners, null, null));
+        }
+        Set<DispatchRecord> first = Collections.newSetFromMap(new IdentityHashMap<DispatchRecord, Boolean>());
+        first.addAll(records);
+        for (DispatchRecord record : records) {
+            record.run();
+        }
+
+        int reused = 0;
+        for (int i = 0; i < 40; i++) {
+            if (first.contains(DispatchRecord.obtain(listeners, null, null))) {
+                reused++;
+            }
+        }
+        Assert.assertEquals(20, reused);
+    }
+
+    private static final class StringListener implements EventManager.EventReceivedListener<String> {
+        final List<Object> mReceived = new ArrayList<Object>();
+
+        @Override
+        public void onEventReceived(String data) {
+            mReceived.add(data);
+        }
+    }
+}
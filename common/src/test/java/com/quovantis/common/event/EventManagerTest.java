@@ -0,0 +1,154 @@
+package com.quovantis.common.event;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class EventManagerTest extends TestCase {
+
+    private static final SubscriberConfig CALLER = new SubscriberConfig()
+            .setDeliveryTarget(DeliveryTarget.CALLER_THREAD);
+
+    @Test
+    public void testBroadcastReachesEveryListener() throws Exception {
+        EventManager manager = EventManager.getInstance();
+        String action = "registry_broadcast";
+        CountingListener first = new CountingListener();
+        CountingListener second = new CountingListener();
+        manager.registerForEvent(action, first, CALLER);
+        manager.registerForEvent(action, second, CALLER);
+        manager.registerForEvent(action, second, CALLER);
+
+        manager.broadcastEvent(action, "data");
+
+        Assert.assertEquals(1, first.mCount.get());
+        Assert.assertEquals(1, second.mCount.get());
+        manager.unregisterReceiver(action, first);
+        manager.unregisterReceiver(action, second);
+        Assert.assertFalse(manager.hasSubscriber(action));
+    }
+
+    @Test
+    public void testUnregisterDuringBroadcastKeepsSnapshot() throws Exception {
+        final EventManager manager = EventManager.getInstance();
+        final String action = "registry_unregister_in_listener";
+        final CountingListener second = new CountingListener();
+        EventManager.EventReceivedListener first = new EventManager.EventReceivedListener() {
+            @Override
+            public void onEventReceived(Object data) {
+                manager.unregisterReceiver(action, second);
+            }
+        };
+        manager.registerForEvent(action, first, CALLER);
+        manager.registerForEvent(action, second, CALLER);
+
+        manager.broadcastEvent(action, null);
+        manager.broadcastEvent(action, null);
+
+        //first broadcast was already iterating over the listeners when second was removed
+        Assert.assertEquals(1, second.mCount.get());
+        manager.unregisterReceiver(action, first);
+    }
+
+    @Test
+    public void testConcurrentRegisterAndUnregisterDuringBroadcast() throws Exception {
+        final EventManager manager = EventManager.getInstance();
+        final String action = "registry_concurrent";
+        final int broadcasts = 20000;
+        final int churnThreads = 4;
+        CountingListener stable = new CountingListener();
+        manager.registerForEvent(action, stable, CALLER);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger(churnThreads);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final List<CountingListener> churnListeners = new ArrayList<CountingListener>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < churnThreads; i++) {
+            final CountingListener listener = new CountingListener();
+            churnListeners.add(listener);
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < 2000; j++) {
+                            manager.registerForEvent(action, listener, CALLER);
+                            manager.unregisterReceiver(action, listener);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        int sent = 0;
+        while (sent < broadcasts || running.get() > 0) {
+            manager.broadcastEvent(action, sent++);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertNull(failure.get());
+        Assert.assertEquals(sent, stable.mCount.get());
+        int churnReceived = 0;
+        for (CountingListener listener : churnListeners) {
+            churnReceived += listener.mCount.get();
+        }
+        manager.broadcastEvent(action, null);
+        Assert.assertEquals(sent + 1, stable.mCount.get());
+        int churnReceivedAfter = 0;
+        for (CountingListener listener : churnListeners) {
+            churnReceivedAfter += listener.mCount.get();
+        }
+        //every churn listener is unregistered at the end
+        Assert.assertEquals(churnReceived, churnReceivedAfter);
+        manager.unregisterReceiver(action, stable);
+        Assert.assertFalse(manager.hasSubscriber(action));
+    }
+
+    @Test
+    public void testStickyChannelEventOfOtherTypeIsNull() throws Exception {
+        EventManager manager = EventManager.getInstance();
+        EventChannel<String> channel = EventChannel.create("sticky_channel", String.class);
+        manager.setSticky(channel.getAction(), true);
+
+        manager.broadcastEvent(channel.getAction(), 5);
+        Assert.assertNull(manager.getStickyEvent(channel));
+        Assert.assertEquals(5, manager.getStickyEvent(channel.getAction()));
+
+        manager.broadcastEvent(channel, "data");
+        Assert.assertEquals("data", manager.getStickyEvent(channel));
+        manager.setSticky(channel.getAction(), false);
+    }
+
+    static final class CountingListener implements EventManager.EventReceivedListener<Object> {
+        final AtomicInteger mCount = new AtomicInteger();
+        final List<Object> mReceived = new ArrayList<Object>();
+
+        @Override
+        public void onEventReceived(Object data) {
+            mCount.incrementAndGet();
+            synchronized (mReceived) {
+                mReceived.add(data);
+            }
+        }
+    }
+}
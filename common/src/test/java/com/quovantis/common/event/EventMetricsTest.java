@@ -0,0 +1,71 @@
+package com.quovantis.common.event;
+
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Map;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class EventMetricsTest extends TestCase {
+
+    private static final SubscriberConfig CALLER = new SubscriberConfig()
+            .setDeliveryTarget(DeliveryTarget.CALLER_THREAD);
+
+    @Before
+    public void enableMetrics() {
+        EventMetrics.setEnabled(true);
+    }
+
+    @After
+    public void disableMetrics() {
+        EventMetrics.setEnabled(false);
+    }
+
+    @Test
+    public void testListenersOfSameClassAreRecordedSeparately() throws Exception {
+        EventSlot slot = new EventSlot();
+        EventManagerTest.CountingListener first = new EventManagerTest.CountingListener();
+        EventManagerTest.CountingListener second = new EventManagerTest.CountingListener();
+        slot.add(first, CALLER);
+        slot.add(second, CALLER);
+        slot.dispatch("data");
+
+        Map<String, LatencySnapshot> execution = slot.getMetrics("metrics").getListenerExecution();
+        Assert.assertEquals(2, execution.size());
+        Assert.assertEquals(1, execution.get(nameOf(first)).getCount());
+        Assert.assertEquals(1, execution.get(nameOf(second)).getCount());
+
+        //unregistered listener is not reported anymore
+        slot.remove(second);
+        slot.dispatch("data");
+        execution = slot.getMetrics("metrics").getListenerExecution();
+        Assert.assertEquals(1, execution.size());
+        Assert.assertEquals(2, execution.get(nameOf(first)).getCount());
+    }
+
+    @Test
+    public void testWeakListenerIsRecordedByActualListener() throws Exception {
+        EventSlot slot = new EventSlot();
+        EventManagerTest.CountingListener listener = new EventManagerTest.CountingListener();
+        slot.add(listener, new SubscriberConfig().setDeliveryTarget(DeliveryTarget.CALLER_THREAD)
+                .setWeakReference(true));
+        slot.dispatch("data");
+
+        Map<String, LatencySnapshot> execution = slot.getMetrics("metrics").getListenerExecution();
+
+        Assert.assertEquals(1, execution.get(nameOf(listener)).getCount());
+        slot.remove(listener);
+        Assert.assertTrue(slot.getMetrics("metrics").getListenerExecution().isEmpty());
+    }
+
+    private static String nameOf(Object listener) {
+        return listener.getClass().getName() + '@' + Integer.toHexString(System.identityHashCode(listener));
+    }
+}
@@ -0,0 +1,99 @@
+package com.quovantis.common.event;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class EventSlotTest extends TestCase {
+
+    @Test
+    public void testStickyReplayIsSkippedForPendingConflatedDispatch() throws Exception {
+        QueuedTarget target = new QueuedTarget();
+        SubscriberConfig config = new SubscriberConfig().setDeliveryTarget(target);
+        EventSlot slot = new EventSlot();
+        slot.setSticky(true);
+        slot.setConflating(true);
+        EventManagerTest.CountingListener first = new EventManagerTest.CountingListener();
+        EventManagerTest.CountingListener second = new EventManagerTest.CountingListener();
+        slot.add(first, config);
+
+        slot.dispatch(5);
+        slot.add(second, config);
+        target.runAll();
+
+        //pending dispatch delivers to the new listener so it is not replayed again
+        Assert.assertEquals(Collections.<Object>singletonList(5), first.mReceived);
+        Assert.assertEquals(Collections.<Object>singletonList(5), second.mReceived);
+    }
+
+    @Test
+    public void testStickyReplayAfterConflatedDispatch() throws Exception {
+        QueuedTarget target = new QueuedTarget();
+        SubscriberConfig config = new SubscriberConfig().setDeliveryTarget(target);
+        EventSlot slot = new EventSlot();
+        slot.setSticky(true);
+        slot.setConflating(true);
+        EventManagerTest.CountingListener first = new EventManagerTest.CountingListener();
+        EventManagerTest.CountingListener second = new EventManagerTest.CountingListener();
+        slot.add(first, config);
+        slot.dispatch(5);
+        target.runAll();
+
+        slot.add(second, config);
+        slot.dispatch(6);
+        target.runAll();
+
+        Assert.assertEquals(Arrays.<Object>asList(5, 6), first.mReceived);
+        Assert.assertEquals(Arrays.<Object>asList(5, 6), second.mReceived);
+    }
+
+    @Test
+    public void testStickyReplayIsOrderedWithPendingDispatch() throws Exception {
+        QueuedTarget target = new QueuedTarget();
+        SubscriberConfig config = new SubscriberConfig().setDeliveryTarget(target);
+        EventSlot slot = new EventSlot();
+        slot.setSticky(true);
+        EventManagerTest.CountingListener first = new EventManagerTest.CountingListener();
+        EventManagerTest.CountingListener second = new EventManagerTest.CountingListener();
+        slot.add(first, config);
+
+        slot.dispatch(5);
+        slot.add(second, config);
+        slot.dispatch(6);
+        target.runAll();
+
+        Assert.assertEquals(Arrays.<Object>asList(5, 6), first.mReceived);
+        Assert.assertEquals(Arrays.<Object>asList(5, 6), second.mReceived);
+    }
+
+    @Test
+    public void testSynchronousListenerIsCalledOutsideSlotMonitor() throws Exception {
+        final EventSlot slot = new EventSlot();
+        slot.setSticky(true);
+        slot.dispatch(5);
+        final boolean[] held = new boolean[2];
+        EventManager.EventReceivedListener<Object> listener = new EventManager.EventReceivedListener<Object>() {
+            @Override
+            public void onEventReceived(Object data) {
+                held[(Integer) data - 5] = Thread.holdsLock(slot);
+            }
+        };
+        SubscriberConfig config = new SubscriberConfig().setDeliveryTarget(DeliveryTarget.CALLER_THREAD);
+
+        //replay on registration
+        slot.add(listener, config);
+        //broadcast of sticky slot
+        slot.dispatch(6);
+
+        Assert.assertFalse(held[0]);
+        Assert.assertFalse(held[1]);
+    }
+}
@@ -0,0 +1,128 @@
+package com.quovantis.common.event;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class MailboxTest extends TestCase {
+
+    @Test
+    public void testDropOldestKeepsNewestEvents() throws Exception {
+        Mailbox mailbox = new Mailbox(2, OverflowPolicy.DROP_OLDEST, new EventMetrics(), 0);
+
+        Assert.assertTrue(mailbox.offer(1, true, 0));
+        Assert.assertFalse(mailbox.offer(2, true, 0));
+        Assert.assertFalse(mailbox.offer(3, true, 0));
+
+        Assert.assertEquals(Arrays.<Object>asList(2, 3), drain(mailbox));
+        Assert.assertEquals(1, mailbox.getDroppedCount());
+    }
+
+    @Test
+    public void testDropNewestKeepsQueuedEvents() throws Exception {
+        Mailbox mailbox = new Mailbox(2, OverflowPolicy.DROP_NEWEST, new EventMetrics(), 0);
+
+        mailbox.offer(1, true, 0);
+        mailbox.offer(2, true, 0);
+        mailbox.offer(3, true, 0);
+
+        Assert.assertEquals(Arrays.<Object>asList(1, 2), drain(mailbox));
+        Assert.assertEquals(1, mailbox.getDroppedCount());
+    }
+
+    @Test
+    public void testBlockProducerWaitsForSpace() throws Exception {
+        final Mailbox mailbox = new Mailbox(1, OverflowPolicy.BLOCK_PRODUCER, new EventMetrics(), 10000);
+        mailbox.offer(1, true, 0);
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                mailbox.offer(2, true, 0);
+                done.countDown();
+            }
+        });
+        producer.start();
+
+        Assert.assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, mailbox.poll());
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.<Object>asList(2), drain(mailbox));
+        Assert.assertEquals(0, mailbox.getDroppedCount());
+    }
+
+    @Test
+    public void testBlockProducerDropsAfterTimeout() throws Exception {
+        Mailbox mailbox = new Mailbox(1, OverflowPolicy.BLOCK_PRODUCER, new EventMetrics(), 50);
+        mailbox.offer(1, true, 0);
+
+        long start = System.nanoTime();
+        Assert.assertFalse(mailbox.offer(2, true, 0));
+
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertEquals(Arrays.<Object>asList(1), drain(mailbox));
+        Assert.assertEquals(1, mailbox.getDroppedCount());
+    }
+
+    @Test
+    public void testBlockProducerDropsOnDeliveryThread() throws Exception {
+        Mailbox mailbox = new Mailbox(1, OverflowPolicy.BLOCK_PRODUCER, new EventMetrics(), 10000);
+        mailbox.offer(1, false, 0);
+
+        Assert.assertFalse(mailbox.offer(2, false, 0));
+
+        Assert.assertEquals(1, mailbox.getDroppedCount());
+    }
+
+    @Test
+    public void testReleaseOfTargetWakesBlockedProducer() throws Exception {
+        QueuedTarget target = new QueuedTarget();
+        final DeliveryGroup group = new DeliveryGroup(target, 1, OverflowPolicy.BLOCK_PRODUCER,
+                new EventMetrics(), new Object());
+        group.add(new EventManagerTest.CountingListener());
+        group.dispatch(1, false);
+        final AtomicBoolean returned = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                group.dispatch(2, false);
+                returned.set(true);
+                done.countDown();
+            }
+        });
+        producer.start();
+        Assert.assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+
+        target.release();
+
+        //woken well before block timeout of the group
+        Assert.assertTrue(done.await(DeliveryGroup.BLOCK_TIMEOUT_MILLIS / 2, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(returned.get());
+        Assert.assertEquals(1, group.getDroppedCount());
+        //offer after release is dropped without blocking
+        group.dispatch(3, false);
+        Assert.assertEquals(2, group.getDroppedCount());
+    }
+
+    private static List<Object> drain(Mailbox mailbox) {
+        List<Object> events = new ArrayList<Object>();
+        Object data;
+        while ((data = mailbox.poll()) != Mailbox.EMPTY) {
+            events.add(data);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,44 @@
+package com.quovantis.common.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delivery target for tests which keeps posted runnables till {@link #runAll()} is called
+ */
+final class QueuedTarget extends DeliveryTarget {
+    private final List<Runnable> mQueue = new ArrayList<Runnable>();
+
+    @Override
+    synchronized void execute(Runnable runnable) {
+        mQueue.add(runnable);
+    }
+
+    @Override
+    boolean isCurrentThread() {
+        return false;
+    }
+
+    /**
+     * @return number of runnables posted and not run yet
+     */
+    synchronized int pendingCount() {
+        return mQueue.size();
+    }
+
+    /**
+     * Run posted runnables in order including the ones posted while running
+     */
+    void runAll() {
+        while (true) {
+            Runnable runnable;
+            synchronized (this) {
+                if (mQueue.isEmpty()) {
+                    return;
+                }
+                runnable = mQueue.remove(0);
+            }
+            runnable.run();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.quovantis.common.event;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.ref.WeakReference;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(sdk = 18)
+public class WeakListenerTest extends TestCase {
+
+    private static final SubscriberConfig WEAK_CALLER = new SubscriberConfig()
+            .setDeliveryTarget(DeliveryTarget.CALLER_THREAD).setWeakReference(true);
+
+    @Test
+    public void testCollectedListenerIsPrunedAndSlotReleased() throws Exception {
+        EventSlot slot = new EventSlot();
+        WeakReference<EventManager.EventReceivedListener> reference = addCollectable(slot, WEAK_CALLER);
+
+        Assert.assertFalse(slot.isEmpty());
+        awaitCollected(reference);
+        slot.dispatch("data");
+
+        Assert.assertTrue(slot.isEmpty());
+    }
+
+    @Test
+    public void testCollectedListenerReleasesOnlyItsGroup() throws Exception {
+        EventSlot slot = new EventSlot();
+        QueuedTarget target = new QueuedTarget();
+        EventManagerTest.CountingListener strong = new EventManagerTest.CountingListener();
+        slot.add(strong, new SubscriberConfig().setDeliveryTarget(target));
+        WeakReference<EventManager.EventReceivedListener> reference = addCollectable(slot, WEAK_CALLER);
+
+        awaitCollected(reference);
+        slot.dispatch("data");
+        target.runAll();
+
+        Assert.assertFalse(slot.isEmpty());
+        Assert.assertEquals(1, strong.mCount.get());
+        //group of collected listener is removed so slot is empty with strong listener
+        Assert.assertTrue(slot.remove(strong));
+        Assert.assertTrue(slot.isEmpty());
+    }
+
+    @Test
+    public void testLiveListenerIsNotPruned() throws Exception {
+        EventSlot slot = new EventSlot();
+        EventManagerTest.CountingListener listener = new EventManagerTest.CountingListener();
+        slot.add(listener, WEAK_CALLER);
+
+        System.gc();
+        slot.dispatch("data");
+
+        Assert.assertEquals(1, listener.mCount.get());
+        Assert.assertTrue(slot.remove(listener));
+        Assert.assertTrue(slot.isEmpty());
+    }
+
+    /**
+     * Add a listener which is only weakly reachable after return
+     */
+    private static WeakReference<EventManager.EventReceivedListener> addCollectable(EventSlot slot,
+            SubscriberConfig config) {
+        EventManagerTest.CountingListener listener = new EventManagerTest.CountingListener();
+        slot.add(listener, config);
+        return new WeakReference<EventManager.EventReceivedListener>(listener);
+    }
+
+    private static void awaitCollected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && null != reference.get(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull("listener was not collected", reference.get());
+    }
+}